@@ -0,0 +1,142 @@
+package bench;
+
+import dao.BinaryCodec;
+import model.Order;
+import model.OrderItem;
+import model.Product;
+import model.User;
+import ui.CSVManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic data for the benchmarks, deterministic for a given size.
+ *
+ * Product names are drawn from small word pools so that search queries hit a
+ * realistic mix of common and rare terms. Orders have 1-3 lines; n for
+ * orders counts lines (the rows of orders.csv and of the order table), not
+ * orders.
+ *
+ * The stores use fixed file names relative to the working directory, so
+ * every benchmark calls requireScratchDir() and clean() before writing.
+ */
+public final class BenchData {
+
+    private static final String[] BRANDS = {
+            "Acme", "Nova", "Zen", "Orbit", "Pixel", "Lumen", "Vertex", "Koto", "Arro", "Delta",
+            "Mira", "Sola", "Tern", "Quill", "Brio", "Halo"};
+    private static final String[] KINDS = {
+            "Phone", "Laptop", "Headphones", "Kettle", "Backpack", "Watch", "Camera", "Speaker",
+            "Keyboard", "Mouse", "Monitor", "Lamp", "Blender", "Jacket", "Sneakers", "Charger",
+            "Tablet", "Router", "Mug", "Notebook"};
+    private static final String[] TRAITS = {
+            "Pro", "Mini", "Max", "Lite", "Plus", "Air", "Ultra", "Classic", "Sport", "Eco"};
+
+    // Single words, word prefixes, words inside longer names, two-word queries and misses
+    public static final String[] QUERIES = {
+            "phone", "pho", "lap", "laptop pro", "acme kettle", "head", "watch sport", "zen",
+            "charger 7", "ultra", "note", "xyzzy", "orbit camera lite", "mug", "board"};
+
+    // Files the stores create in the working directory
+    private static final String[] FILES = {
+            "products.csv", "products.csv.tmp", "products.delta.csv", "products.delta.old.csv",
+            "orders.csv", "users.csv", "users.dat"};
+
+    private BenchData() {}
+
+    // ---------------- Generators ----------------
+
+    public static List<Product> products(int n, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<Product> out = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            String name = pick(rnd, BRANDS) + " " + pick(rnd, KINDS) + " " + pick(rnd, TRAITS) + " " + rnd.nextInt(1, 100);
+            double price = Math.round(rnd.nextDouble(1, 5000) * 100) / 100.0;
+            out.add(new Product(i, name, price, 1 + rnd.nextInt(Math.max(1, n / 100))));
+        }
+        return out;
+    }
+
+    public static List<User> users(int n) {
+        List<User> out = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            out.add(new User(i, "User " + i, email(i), "pw" + i, i % 10 == 0 ? "seller" : "buyer"));
+        }
+        return out;
+    }
+
+    public static String email(int userId) {
+        return "user" + userId + "@bench.dealmate";
+    }
+
+    public static String password(int userId) {
+        return "pw" + userId;
+    }
+
+    // About `lines` order lines in total, spread over orders of 1-3 lines
+    public static List<Order> orders(int lines, List<Product> products, List<User> users, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<Order> out = new ArrayList<>(lines / 2 + 1);
+        long start = System.currentTimeMillis() - 30L * 24 * 3_600_000;
+        int made = 0, id = 1;
+        while (made < lines) {
+            Order o = new Order(id++, users.get(rnd.nextInt(users.size())));
+            o.setCreatedAt(start + rnd.nextLong(30L * 24 * 3_600_000));
+            int items = Math.min(1 + rnd.nextInt(3), lines - made);
+            for (int i = 0; i < items; i++) {
+                o.addItem(new OrderItem(products.get(rnd.nextInt(products.size())), 1 + rnd.nextInt(5)));
+            }
+            made += items;
+            out.add(o);
+        }
+        return out;
+    }
+
+    private static String pick(SplittableRandom rnd, String[] words) {
+        return words[rnd.nextInt(words.length)];
+    }
+
+    // ---------------- Files ----------------
+
+    public static void writeProducts(List<Product> products) {
+        CSVManager.saveProducts(products);
+    }
+
+    public static void writeOrders(List<Order> orders) {
+        CSVManager.saveOrders(orders);
+    }
+
+    public static void writeUsers(List<User> users) throws IOException {
+        BinaryCodec.writeUsers(Paths.get("users.dat"), users);
+    }
+
+    /**
+     * Refuses to run anywhere that looks like a source checkout, since clean()
+     * deletes the data files in the working directory.
+     */
+    public static void requireScratchDir() {
+        File cwd = new File("").getAbsoluteFile();
+        if (new File(cwd, "pom.xml").exists() || new File(cwd, "src").exists()) {
+            throw new IllegalStateException("Run the benchmarks from an empty scratch directory, not " + cwd);
+        }
+    }
+
+    // Removes every file a store may have left behind, including the data/ folder
+    public static void clean() throws IOException {
+        for (String f : FILES) Files.deleteIfExists(Paths.get(f));
+        Path data = Paths.get("data");
+        if (!Files.exists(data)) return;
+        try (Stream<Path> walk = Files.walk(data)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import dao.ProductCatalog;
+import model.Order;
+import model.Product;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+import ui.CSVManager;
+import ui.OrderLoadReport;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full loads of products.csv and orders.csv at the given row count.
+ * Order loading is measured against a catalog that is already in memory,
+ * so the score covers the order file alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class CsvBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ProductCatalog catalog;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchData.requireScratchDir();
+        BenchData.clean();
+        List<Product> products = BenchData.products(rows, 1);
+        users = BenchData.users(Math.max(100, rows / 10));
+        BenchData.writeProducts(products);
+        BenchData.writeOrders(BenchData.orders(rows, products, users, 2));
+        catalog = new ProductCatalog(products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchData.clean();
+    }
+
+    @Benchmark
+    public List<Product> loadProducts() {
+        return CSVManager.loadProducts();
+    }
+
+    @Benchmark
+    public ProductCatalog loadProductCatalog() {
+        return CSVManager.loadProductCatalog();
+    }
+
+    @Benchmark
+    public List<Order> loadOrders() {
+        return CSVManager.loadOrders(catalog, users, new OrderLoadReport());
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import dao.OrderDAO;
+import model.Order;
+import model.OrderItem;
+import model.Product;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending orders to a journal that already holds the given number of order
+ * lines. saveOrder is the buffered append; placeOrder waits for the fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class OrderDAOBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private OrderDAO dao;
+    private User buyer;
+    private List<Product> products;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchData.requireScratchDir();
+        BenchData.clean();
+        products = BenchData.products(1000, 1);
+        List<User> users = BenchData.users(100);
+        buyer = users.get(1);
+
+        dao = new OrderDAO();
+        for (Order o : BenchData.orders(rows, products, users, 2)) {
+            dao.saveOrder(o);
+        }
+        dao.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dao.flush();
+        BenchData.clean();
+    }
+
+    private Order newOrder() {
+        Order o = new Order(0, buyer);
+        o.addItem(new OrderItem(products.get(next++ % products.size()), 1));
+        o.addItem(new OrderItem(products.get(next++ % products.size()), 2));
+        return o;
+    }
+
+    @Benchmark
+    public Order saveOrder() {
+        Order o = newOrder();
+        dao.saveOrder(o);
+        return o;
+    }
+
+    @Benchmark
+    public boolean placeOrder() {
+        return dao.placeOrder(newOrder());
+    }
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import model.Product;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ui.OrderTableModel;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cell reads the way a JTable paints them: random rows, every column.
+ * Works on in-memory orders only; no files are touched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class OrderTableModelBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private OrderTableModel model;
+    private int[] rowSequence;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Product> products = BenchData.products(Math.max(100, rows / 10), 1);
+        List<User> users = BenchData.users(Math.max(100, rows / 100));
+        model = new OrderTableModel(BenchData.orders(rows, products, users, 2));
+
+        // Precomputed so the random source is not part of the score
+        SplittableRandom rnd = new SplittableRandom(3);
+        rowSequence = new int[4096];
+        for (int i = 0; i < rowSequence.length; i++) rowSequence[i] = rnd.nextInt(model.getRowCount());
+    }
+
+    @Benchmark
+    public Object getValueAt() {
+        int i = next++;
+        return model.getValueAt(rowSequence[i & 4095], i % 5);
+    }
+
+    // One visible row, all five columns
+    @Benchmark
+    @OperationsPerInvocation(5)
+    public void paintRow(Blackhole bh) {
+        int row = rowSequence[next++ & 4095];
+        for (int c = 0; c < 5; c++) bh.consume(model.getValueAt(row, c));
+    }
+}
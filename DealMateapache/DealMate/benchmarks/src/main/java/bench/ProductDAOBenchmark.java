@@ -0,0 +1,74 @@
+package bench;
+
+import dao.ProductDAO;
+import model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search over a catalog of the given size (index already built; the lazy
+ * build is a one-time cost and is timed separately by buildIndex), and
+ * adding products through the write-behind path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ProductDAOBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ProductDAO dao;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchData.requireScratchDir();
+        BenchData.clean();
+        BenchData.writeProducts(BenchData.products(rows, 1));
+        dao = new ProductDAO();
+        dao.searchProducts("warm", 1); // builds the index
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dao.flush();
+        BenchData.clean();
+    }
+
+    private String nextQuery() {
+        String q = BenchData.QUERIES[next];
+        next = (next + 1) % BenchData.QUERIES.length;
+        return q;
+    }
+
+    // What the live search shows first
+    @Benchmark
+    public List<Product> searchFirstPage() {
+        return dao.searchProducts(nextQuery(), 50);
+    }
+
+    // The unlimited form, as SearchPage used it before paging
+    @Benchmark
+    public List<Product> searchAll() {
+        return dao.searchProducts(nextQuery());
+    }
+
+    @Benchmark
+    public int[] searchIds() {
+        return dao.searchProductIds(nextQuery(), 5000);
+    }
+
+    @Benchmark
+    public Product addProduct() {
+        Product p = new Product(0, "Bench Gadget " + next++, 9.99, 1);
+        dao.addProduct(p);
+        return p;
+    }
+}
@@ -0,0 +1,63 @@
+package bench;
+
+import dao.UserDAO;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Login against a users file of the given size: a match, a wrong password and an unknown email. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class UserDAOBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private UserDAO dao;
+    private String[] emails, passwords;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchData.requireScratchDir();
+        BenchData.clean();
+        BenchData.writeUsers(BenchData.users(rows));
+        dao = new UserDAO();
+
+        // A fixed spread of users, so lookups are not all served from one cache line
+        emails = new String[1024];
+        passwords = new String[1024];
+        for (int i = 0; i < emails.length; i++) {
+            int id = 1 + (int) ((long) i * 7919 % rows);
+            emails[i] = BenchData.email(id);
+            passwords[i] = BenchData.password(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchData.clean();
+    }
+
+    @Benchmark
+    public User loginHit() {
+        int i = next++ & 1023;
+        return dao.login(emails[i], passwords[i]);
+    }
+
+    @Benchmark
+    public User loginWrongPassword() {
+        return dao.login(emails[next++ & 1023], "wrong");
+    }
+
+    @Benchmark
+    public User loginUnknownEmail() {
+        return dao.login("nobody@bench.dealmate", "pw");
+    }
+}
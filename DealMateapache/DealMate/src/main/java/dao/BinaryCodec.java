@@ -0,0 +1,305 @@
+package dao;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import model.Order;
+import model.OrderItem;
+import model.Product;
+import model.User;
+
+/**
+ * Hand-written binary format for users, products and orders.
+ *
+ * A file is [magic "DMBC"][schema version][record type][count] followed by
+ * count records. Strings are [length][UTF-8 bytes], length -1 for null.
+ * Decoders take the schema version the data was written with, so older
+ * files stay readable when a field is added: bump SCHEMA_VERSION and read
+ * the new field only when version >= the one that introduced it.
+ *
+ * Versions: 1 initial; 2 adds Order.createdAt.
+ *
+ * Files are written to a temp file, forced and renamed into place. A file or
+ * record that is truncated or has a length that does not fit the data reads
+ * as an IOException, like any other unreadable file.
+ */
+public final class BinaryCodec {
+
+    public static final int MAGIC = 0x444D4243; // "DMBC"
+    public static final int SCHEMA_VERSION = 2;
+
+    public static final byte TYPE_USER = 1;
+    public static final byte TYPE_PRODUCT = 2;
+    public static final byte TYPE_ORDER = 3;
+
+    private static final int FILE_HEADER = 4 + 2 + 1 + 4;
+
+    private interface Decoder<T> {
+        T get(ByteBuffer in, int version) throws IOException;
+    }
+
+    private BinaryCodec() {}
+
+    // ---------------- Files ----------------
+
+    public static void writeUsers(Path file, List<User> users) throws IOException {
+        Out out = new Out(64 * users.size() + FILE_HEADER);
+        header(out, TYPE_USER, users.size());
+        for (User u : users) putUser(out, u);
+        writeFile(file, out);
+    }
+
+    public static List<User> readUsers(Path file) throws IOException {
+        return readRecords(file, TYPE_USER, BinaryCodec::getUser);
+    }
+
+    public static void writeProducts(Path file, List<Product> products) throws IOException {
+        Out out = new Out(40 * products.size() + FILE_HEADER);
+        header(out, TYPE_PRODUCT, products.size());
+        for (Product p : products) putProduct(out, p);
+        writeFile(file, out);
+    }
+
+    public static List<Product> readProducts(Path file) throws IOException {
+        return readRecords(file, TYPE_PRODUCT, BinaryCodec::getProduct);
+    }
+
+    public static void writeOrders(Path file, List<Order> orders) throws IOException {
+        Out out = new Out(96 * orders.size() + FILE_HEADER);
+        header(out, TYPE_ORDER, orders.size());
+        for (Order o : orders) putOrder(out, o);
+        writeFile(file, out);
+    }
+
+    public static List<Order> readOrders(Path file) throws IOException {
+        return readRecords(file, TYPE_ORDER, BinaryCodec::getOrder);
+    }
+
+    // True if the file starts with our magic number
+    public static boolean isCodecFile(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4);
+            return ch.read(b) == 4 && b.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ---------------- Single order (journal payloads) ----------------
+
+    // [schema version][order]
+    public static byte[] encodeOrder(Order o) {
+        Out out = new Out(96);
+        out.putByte((byte) SCHEMA_VERSION);
+        putOrder(out, o);
+        return out.toArray();
+    }
+
+    public static Order decodeOrder(ByteBuffer in) throws IOException {
+        try {
+            int version = in.get();
+            if (version < 1 || version > SCHEMA_VERSION) throw new IOException("Unsupported order record version " + version);
+            return getOrder(in, version);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt order record: it ends in the middle of a field", e);
+        }
+    }
+
+    // ---------------- Records ----------------
+
+    public static void putUser(Out out, User u) {
+        out.putInt(u.getId());
+        out.putString(u.getName());
+        out.putString(u.getEmail());
+        out.putString(u.getPassword());
+        out.putString(u.getRole());
+    }
+
+    public static User getUser(ByteBuffer in, int version) throws IOException {
+        User u = new User();
+        u.setId(in.getInt());
+        u.setName(getString(in));
+        u.setEmail(getString(in));
+        u.setPassword(getString(in));
+        u.setRole(getString(in));
+        return u;
+    }
+
+    public static void putProduct(Out out, Product p) {
+        out.putInt(p.getId());
+        out.putString(p.getName());
+        out.putDouble(p.getPrice());
+        out.putInt(p.getSellerId());
+    }
+
+    public static Product getProduct(ByteBuffer in, int version) throws IOException {
+        Product p = new Product();
+        p.setId(in.getInt());
+        p.setName(getString(in));
+        p.setPrice(in.getDouble());
+        p.setSellerId(in.getInt());
+        return p;
+    }
+
+    // Orders carry the buyer without the password
+    public static void putOrder(Out out, Order o) {
+        out.putInt(o.getId());
+        out.putLong(o.getCreatedAt());
+        User u = o.getUser();
+        out.putByte((byte) (u != null ? 1 : 0));
+        if (u != null) {
+            out.putInt(u.getId());
+            out.putString(u.getName());
+            out.putString(u.getEmail());
+            out.putString(u.getRole());
+        }
+
+        List<OrderItem> items = o.getItems();
+        out.putInt(items.size());
+        for (OrderItem it : items) {
+            Product p = it.getProduct();
+            out.putByte((byte) (p != null ? 1 : 0));
+            if (p != null) putProduct(out, p);
+            out.putInt(it.getQuantity());
+        }
+    }
+
+    public static Order getOrder(ByteBuffer in, int version) throws IOException {
+        Order o = new Order();
+        o.setId(in.getInt());
+        if (version >= 2) o.setCreatedAt(in.getLong());
+        if (in.get() != 0) {
+            User u = new User();
+            u.setId(in.getInt());
+            u.setName(getString(in));
+            u.setEmail(getString(in));
+            u.setRole(getString(in));
+            o.setUser(u);
+        }
+
+        int count = count(in);
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OrderItem it = new OrderItem();
+            if (in.get() != 0) it.setProduct(getProduct(in, version));
+            it.setQuantity(in.getInt());
+            items.add(it);
+        }
+        o.setItems(items);
+        return o;
+    }
+
+    public static String getString(ByteBuffer in) throws IOException {
+        int len = in.getInt();
+        if (len == -1) return null;
+        if (len < 0 || len > in.remaining()) throw new IOException("Corrupt string length " + len + " with " + in.remaining() + " bytes left");
+        String s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+        return s;
+    }
+
+    // ---------------- Plumbing ----------------
+
+    private static <T> List<T> readRecords(Path file, byte type, Decoder<T> decoder) throws IOException {
+        ByteBuffer in = readFile(file);
+        int version = checkHeader(in, type, file);
+        try {
+            int count = count(in);
+            List<T> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) records.add(decoder.get(in, version));
+            return records;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt data file " + file + ": it ends in the middle of a record", e);
+        }
+    }
+
+    // Every record takes at least one byte, so a count larger than what is left is corrupt
+    private static int count(ByteBuffer in) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) throw new IOException("Corrupt record count " + count + " with " + in.remaining() + " bytes left");
+        return count;
+    }
+
+    private static void header(Out out, byte type, int count) {
+        out.putInt(MAGIC);
+        out.putShort((short) SCHEMA_VERSION);
+        out.putByte(type);
+        out.putInt(count);
+    }
+
+    private static int checkHeader(ByteBuffer in, byte type, Path file) throws IOException {
+        if (in.remaining() < FILE_HEADER || in.getInt() != MAGIC) throw new IOException("Not a DealMate data file: " + file);
+        int version = in.getShort();
+        if (version < 1 || version > SCHEMA_VERSION) throw new IOException("Unsupported schema version " + version + ": " + file);
+        byte actual = in.get();
+        if (actual != type) throw new IOException("Expected record type " + type + " but found " + actual + ": " + file);
+        return version;
+    }
+
+    private static ByteBuffer readFile(Path file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    private static void writeFile(Path file, Out out) throws IOException {
+        Path abs = file.toAbsolutePath();
+        if (abs.getParent() != null) Files.createDirectories(abs.getParent());
+        Path tmp = abs.resolveSibling(abs.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = out.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        Files.move(tmp, abs, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Growable heap ByteBuffer. */
+    public static final class Out {
+        private ByteBuffer buf;
+
+        public Out(int initialCapacity) {
+            buf = ByteBuffer.allocate(Math.max(64, initialCapacity));
+        }
+
+        public void putByte(byte v) { ensure(1); buf.put(v); }
+        public void putShort(short v) { ensure(2); buf.putShort(v); }
+        public void putInt(int v) { ensure(4); buf.putInt(v); }
+        public void putLong(long v) { ensure(8); buf.putLong(v); }
+        public void putDouble(double v) { ensure(8); buf.putDouble(v); }
+
+        public void putString(String s) {
+            if (s == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buf.putInt(bytes.length);
+            buf.put(bytes);
+        }
+
+        public ByteBuffer flip() {
+            buf.flip();
+            return buf;
+        }
+
+        public byte[] toArray() {
+            byte[] a = new byte[buf.position()];
+            System.arraycopy(buf.array(), 0, a, 0, a.length);
+            return a;
+        }
+
+        private void ensure(int n) {
+            if (buf.remaining() >= n) return;
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n));
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+    }
+}
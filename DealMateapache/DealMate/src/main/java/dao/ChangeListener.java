@@ -0,0 +1,11 @@
+package dao;
+
+/**
+ * Told about changes to a store. Runs on the thread that made the change,
+ * after the change is visible; Swing listeners hop to the EDT themselves.
+ */
+public interface ChangeListener<T> {
+    void added(T item);
+
+    default void removed(T item) {}
+}
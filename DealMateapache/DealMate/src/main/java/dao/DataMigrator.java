@@ -0,0 +1,85 @@
+package dao;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import model.Order;
+import model.Product;
+import model.User;
+
+/**
+ * Converts .dat files written with Java serialization to BinaryCodec files.
+ *
+ * Stores call migrateIfLegacy() before reading, so old files are converted
+ * the first time they are opened. The original is kept next to it as
+ * <name>.ser.bak. Run main() to convert the known files in one go:
+ *
+ *   java -cp target/classes dao.DataMigrator [file ...]
+ */
+public final class DataMigrator {
+
+    private static final String[] KNOWN_FILES = {"users.dat", "data/users.dat", "data/products.dat"};
+
+    private DataMigrator() {}
+
+    public static void main(String[] args) {
+        String[] files = args.length > 0 ? args : KNOWN_FILES;
+        for (String f : files) {
+            Path p = Paths.get(f);
+            try {
+                System.out.println(f + ": " + (migrateIfLegacy(p) ? "migrated" : "nothing to do"));
+            } catch (IOException e) {
+                System.out.println(f + ": failed (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    // Java serialization streams start with 0xACED
+    public static boolean isLegacy(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == 0xAC && in.read() == 0xED;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rewrites a serialized List of User, Product or Order in the codec format.
+     * Returns false if the file is missing or already converted.
+     */
+    public static boolean migrateIfLegacy(Path file) throws IOException {
+        if (!Files.exists(file) || !isLegacy(file)) return false;
+
+        List<?> list;
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            list = (List<?>) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unreadable legacy file " + file, e);
+        }
+
+        Path backup = file.resolveSibling(file.getFileName() + ".ser.bak");
+        Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+
+        Object first = list.isEmpty() ? null : list.get(0);
+        if (first instanceof Product) {
+            BinaryCodec.writeProducts(file, cast(list, Product.class));
+        } else if (first instanceof Order) {
+            BinaryCodec.writeOrders(file, cast(list, Order.class));
+        } else if (first == null && file.getFileName().toString().contains("product")) {
+            BinaryCodec.writeProducts(file, new ArrayList<>());
+        } else {
+            BinaryCodec.writeUsers(file, cast(list, User.class));
+        }
+        return true;
+    }
+
+    private static <T> List<T> cast(List<?> list, Class<T> type) throws IOException {
+        List<T> out = new ArrayList<>(list.size());
+        for (Object o : list) {
+            if (!type.isInstance(o)) throw new IOException("Mixed record types in legacy file");
+            out.add(type.cast(o));
+        }
+        return out;
+    }
+}
@@ -1,49 +1,65 @@
 package dao;
 
-import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import model.User;
 import model.Product;
 
+// Files are in the BinaryCodec format; old serialized files are converted on first read
 public class DatabaseConnection {
 
-    private static final String USER_FILE = "data/users.dat";
-    private static final String PRODUCT_FILE = "data/products.dat";
+    private static final Path USER_FILE = Paths.get("data/users.dat");
+    private static final Path PRODUCT_FILE = Paths.get("data/products.dat");
+
+    private static final LatencyHistogram LOAD_TIME = Metrics.timer("dealmate_db_load_seconds", "DatabaseConnection file reads");
+    private static final LatencyHistogram SAVE_TIME = Metrics.timer("dealmate_db_save_seconds", "DatabaseConnection file writes");
+    private static final Metrics.Counter ERRORS = Metrics.counter("dealmate_db_errors_total", "DatabaseConnection reads/writes that failed");
 
     // Users
     public static List<User> loadUsers() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(USER_FILE))) {
-            return (List<User>) ois.readObject();
+        long start = System.nanoTime();
+        try {
+            if (!USER_FILE.toFile().exists()) return new ArrayList<>();
+            DataMigrator.migrateIfLegacy(USER_FILE);
+            List<User> users = BinaryCodec.readUsers(USER_FILE);
+            LOAD_TIME.recordSince(start);
+            return users;
         } catch (Exception e) {
+            ERRORS.inc();
             return new ArrayList<>();
         }
     }
 
     public static void saveUsers(List<User> users) {
+        long start = System.nanoTime();
         try {
-            new File("data").mkdirs();
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(USER_FILE))) {
-                oos.writeObject(users);
-            }
-        } catch (Exception e) { e.printStackTrace(); }
+            BinaryCodec.writeUsers(USER_FILE, users);
+            SAVE_TIME.recordSince(start);
+        } catch (Exception e) { ERRORS.inc(); e.printStackTrace(); }
     }
 
     // Products
     public static List<Product> loadProducts() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(PRODUCT_FILE))) {
-            return (List<Product>) ois.readObject();
+        long start = System.nanoTime();
+        try {
+            if (!PRODUCT_FILE.toFile().exists()) return new ArrayList<>();
+            DataMigrator.migrateIfLegacy(PRODUCT_FILE);
+            List<Product> products = BinaryCodec.readProducts(PRODUCT_FILE);
+            LOAD_TIME.recordSince(start);
+            return products;
         } catch (Exception e) {
+            ERRORS.inc();
             return new ArrayList<>();
         }
     }
 
     public static void saveProducts(List<Product> products) {
+        long start = System.nanoTime();
         try {
-            new File("data").mkdirs();
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(PRODUCT_FILE))) {
-                oos.writeObject(products);
-            }
-        } catch (Exception e) { e.printStackTrace(); }
+            BinaryCodec.writeProducts(PRODUCT_FILE, products);
+            SAVE_TIME.recordSince(start);
+        } catch (Exception e) { ERRORS.inc(); e.printStackTrace(); }
     }
 }
@@ -0,0 +1,158 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide metrics: counters, latency timers and gauges.
+ *
+ * Call sites keep their metric in a static final field, so the hot path is
+ * one nanoTime() pair and an atomic add with no lookup and no allocation:
+ *
+ *   private static final LatencyHistogram SEARCH = Metrics.timer("dealmate_product_search_seconds", "...");
+ *   long t = System.nanoTime(); ... SEARCH.recordSince(t);
+ *
+ * Timers record nanoseconds and are exported in seconds. Registering a
+ * name twice returns the existing counter/timer; a gauge registered again
+ * replaces the old supplier (the newest store instance wins).
+ *
+ * toPrometheus() writes the text exposition format (timers as summaries),
+ * toJson() a flat JSON object; samples() feeds the dashboard's diagnostics card.
+ */
+public final class Metrics {
+
+    public enum Type { COUNTER, GAUGE, TIMER }
+
+    /** Monotonic count; LongAdder keeps contended increments cheap. */
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        public void inc() { adder.increment(); }
+        public void add(long n) { adder.add(n); }
+        public long get() { return adder.sum(); }
+    }
+
+    /** One metric read at a point in time. Timer values are in milliseconds. */
+    public record Sample(String name, String help, Type type, long count, double value,
+                         double p50, double p99, double p999, double max) {}
+
+    private record Entry(String name, String help, Type type, Object metric) {}
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final Map<String, Entry> REGISTRY = new ConcurrentSkipListMap<>();
+
+    private Metrics() {}
+
+    // ---------------- Registration ----------------
+
+    public static Counter counter(String name, String help) {
+        return (Counter) REGISTRY.computeIfAbsent(name, n -> new Entry(n, help, Type.COUNTER, new Counter())).metric();
+    }
+
+    public static LatencyHistogram timer(String name, String help) {
+        return (LatencyHistogram) REGISTRY.computeIfAbsent(name, n -> new Entry(n, help, Type.TIMER, new LatencyHistogram())).metric();
+    }
+
+    public static void gauge(String name, String help, LongSupplier value) {
+        REGISTRY.put(name, new Entry(name, help, Type.GAUGE, value));
+    }
+
+    // ---------------- Reading ----------------
+
+    public static List<Sample> samples() {
+        List<Sample> out = new ArrayList<>(REGISTRY.size());
+        for (Entry e : REGISTRY.values()) {
+            switch (e.type()) {
+                case COUNTER: {
+                    long v = ((Counter) e.metric()).get();
+                    out.add(new Sample(e.name(), e.help(), e.type(), v, v, 0, 0, 0, 0));
+                    break;
+                }
+                case GAUGE: {
+                    long v = readGauge(e);
+                    out.add(new Sample(e.name(), e.help(), e.type(), 0, v, 0, 0, 0, 0));
+                    break;
+                }
+                default: {
+                    LatencyHistogram h = (LatencyHistogram) e.metric();
+                    out.add(new Sample(e.name(), e.help(), e.type(), h.count(), h.mean() / 1e6,
+                            h.percentile(0.5) / 1e6, h.percentile(0.99) / 1e6,
+                            h.percentile(0.999) / 1e6, h.max() / 1e6));
+                }
+            }
+        }
+        return out;
+    }
+
+    public static String toPrometheus() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Entry e : REGISTRY.values()) {
+            sb.append("# HELP ").append(e.name()).append(' ').append(e.help()).append('\n');
+            switch (e.type()) {
+                case COUNTER:
+                    sb.append("# TYPE ").append(e.name()).append(" counter\n");
+                    sb.append(e.name()).append(' ').append(((Counter) e.metric()).get()).append('\n');
+                    break;
+                case GAUGE:
+                    sb.append("# TYPE ").append(e.name()).append(" gauge\n");
+                    sb.append(e.name()).append(' ').append(readGauge(e)).append('\n');
+                    break;
+                default:
+                    LatencyHistogram h = (LatencyHistogram) e.metric();
+                    sb.append("# TYPE ").append(e.name()).append(" summary\n");
+                    for (double q : QUANTILES) {
+                        sb.append(e.name()).append("{quantile=\"").append(q).append("\"} ")
+                                .append(seconds(h.percentile(q))).append('\n');
+                    }
+                    sb.append(e.name()).append("_sum ").append(seconds(h.sum())).append('\n');
+                    sb.append(e.name()).append("_count ").append(h.count()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder(4096).append('{');
+        boolean first = true;
+        for (Entry e : REGISTRY.values()) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(e.name()).append("\":");
+            switch (e.type()) {
+                case COUNTER: sb.append(((Counter) e.metric()).get()); break;
+                case GAUGE: sb.append(readGauge(e)); break;
+                default:
+                    LatencyHistogram h = (LatencyHistogram) e.metric();
+                    sb.append("{\"count\":").append(h.count())
+                            .append(",\"mean_ms\":").append(ms(h.mean()))
+                            .append(",\"p50_ms\":").append(ms(h.percentile(0.5)))
+                            .append(",\"p99_ms\":").append(ms(h.percentile(0.99)))
+                            .append(",\"p999_ms\":").append(ms(h.percentile(0.999)))
+                            .append(",\"max_ms\":").append(ms(h.max())).append('}');
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static long readGauge(Entry e) {
+        try {
+            return ((LongSupplier) e.metric()).getAsLong();
+        } catch (RuntimeException ex) {
+            return -1; // a store that is closing should not break the dump
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String ms(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
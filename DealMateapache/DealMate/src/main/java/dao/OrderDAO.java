@@ -3,49 +3,115 @@ package dao;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import model.Order;
 
 public class OrderDAO {
 
-    private static final String ORDER_FILE = "data/orders.dat";
+    private static final String LEGACY_ORDER_FILE = "data/orders.dat";
+    private static final String ORDER_LOG = "data/orders.log";
+
+    private static final LatencyHistogram OPEN_TIME = Metrics.timer("dealmate_order_open_seconds", "Opening the order journal, including recovery");
+    private static final LatencyHistogram SAVE_TIME = Metrics.timer("dealmate_order_save_seconds", "OrderDAO.saveOrder (buffered append)");
+    private static final LatencyHistogram PLACE_TIME = Metrics.timer("dealmate_order_place_seconds", "OrderDAO.placeOrder (append and fsync)");
+    private static final LatencyHistogram FLUSH_TIME = Metrics.timer("dealmate_order_flush_seconds", "OrderDAO.flush");
+    private static final Metrics.Counter ERRORS = Metrics.counter("dealmate_order_errors_total", "Order journal writes that failed");
+
+    private final OrderJournal journal;
+    private final List<ChangeListener<Order>> listeners = new CopyOnWriteArrayList<>();
 
     // Ensure data folder exists
     public OrderDAO() {
         File folder = new File("data");
         if (!folder.exists()) folder.mkdirs();
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("orders", "open", ORDER_LOG);
+        journal = OrderJournal.open(ORDER_LOG);
+        importLegacyOrders();
+        OPEN_TIME.recordSince(start);
+        event.finish(journal.size(), journal.recoveredBytes());
+        Metrics.gauge("dealmate_orders", "Orders in the journal", journal::size);
     }
 
-    @SuppressWarnings("unchecked")
     public List<Order> getAllOrders() {
-        File file = new File(ORDER_FILE);
-        if (!file.exists()) return new ArrayList<>();
+        return journal.getAllOrders();
+    }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            return (List<Order>) ois.readObject();
-        } catch (Exception e) {
+    // Save a single order (appended to the journal, id assigned from its sequence)
+    public void saveOrder(Order order) {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("orders", "save", ORDER_LOG);
+        int bytes;
+        try {
+            bytes = journal.append(order);
+        } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
             e.printStackTrace();
-            return new ArrayList<>();
+            return;
         }
+        SAVE_TIME.recordSince(start);
+        event.finish(order.getItems().size(), bytes);
+        for (ChangeListener<Order> l : listeners) l.added(order);
     }
 
-    // Save a single order
-    public void saveOrder(Order order) {
-        List<Order> orders = getAllOrders();
+    /**
+     * Durable checkout: the whole order is one journal record and is on disk
+     * when this returns. Concurrent checkouts share the fsync. Returns false
+     * if the order could not be written.
+     */
+    public boolean placeOrder(Order order) {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("orders", "place", ORDER_LOG);
+        int bytes;
+        try {
+            bytes = journal.append(order);
+            journal.sync();
+        } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
+            e.printStackTrace();
+            return false;
+        }
+        PLACE_TIME.recordSince(start);
+        event.finish(order.getItems().size(), bytes);
+        for (ChangeListener<Order> l : listeners) l.added(order);
+        return true;
+    }
 
-        // Generate unique ID
-        int maxId = orders.stream().mapToInt(Order::getId).max().orElse(0);
-        order.setId(maxId + 1);
+    public void addChangeListener(ChangeListener<Order> l) { listeners.add(l); }
+    public void removeChangeListener(ChangeListener<Order> l) { listeners.remove(l); }
 
-        orders.add(order);
-        saveAllOrders(orders);
+    // Wait until every saved order is on disk
+    public void flush() {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("orders", "flush", ORDER_LOG);
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
+            e.printStackTrace();
+            return;
+        }
+        FLUSH_TIME.recordSince(start);
+        event.finish(0, 0);
     }
 
-    // Save the entire list
-    private void saveAllOrders(List<Order> orders) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ORDER_FILE))) {
-            oos.writeObject(orders);
+    // One-time move of the old serialized orders.dat into the journal
+    @SuppressWarnings("unchecked")
+    private void importLegacyOrders() {
+        File legacy = new File(LEGACY_ORDER_FILE);
+        if (!legacy.exists() || journal.size() > 0) return;
+
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(legacy))) {
+            for (Order o : (List<Order>) ois.readObject()) journal.restore(o);
+            journal.sync();
         } catch (Exception e) {
+            ERRORS.inc();
             e.printStackTrace();
+            return;
         }
+        legacy.renameTo(new File(LEGACY_ORDER_FILE + ".migrated"));
     }
 }
@@ -0,0 +1,323 @@
+package dao;
+
+import model.Order;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only order log with periodic snapshots.
+ *
+ * Every order is written as one framed record: [length][crc32][payload]
+ * (see OrderRecords). Records go to numbered segments (orders.log.0,
+ * orders.log.1, ...). Once SNAPSHOT_EVERY records have piled up since the
+ * last snapshot, the active segment is rotated and a background thread writes
+ * a compact snapshot (orders.snap) of everything before the new segment, then
+ * deletes the segments it covers. Writers only wait for the rotation itself.
+ *
+ * Opening the journal loads the snapshot and replays the short tail of
+ * segments after it. After that an append costs the same no matter how many
+ * orders are stored.
+ *
+ * fsync is batched: the channel is forced after SYNC_EVERY records or at the
+ * latest SYNC_INTERVAL_MS after the first unsynced record, whichever comes first.
+ * The id sequence is persistent because every record carries its id and the
+ * snapshot stores the last one; replay restores it.
+ */
+public class OrderJournal implements Closeable {
+
+    private static final int SYNC_EVERY = 64;
+    private static final long SYNC_INTERVAL_MS = 50;
+    private static final int SNAPSHOT_EVERY = 10_000;
+
+    // One journal per file, shared by every OrderDAO
+    private static final Map<Path, OrderJournal> OPEN = new HashMap<>();
+
+    private final Path base;
+    private final Path snapshotFile;
+    private final List<Order> orders = new ArrayList<>();
+    private volatile int count; // orders.size(), readable without the lock (metrics gauge)
+    private final ScheduledExecutorService syncer;
+    private final ExecutorService compactor;
+
+    private FileChannel channel;
+    private int segment;
+    private int lastId;
+    private int unsynced;
+    private int sinceSnapshot;
+    private boolean compacting;
+    private long recoveredBytes;
+
+    public static synchronized OrderJournal open(String file) {
+        Path p = Paths.get(file).toAbsolutePath();
+        OrderJournal j = OPEN.get(p);
+        if (j == null) {
+            try {
+                j = new OrderJournal(p);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open order journal " + p, e);
+            }
+            OPEN.put(p, j);
+        }
+        return j;
+    }
+
+    private OrderJournal(Path base) throws IOException {
+        this.base = base;
+        this.snapshotFile = base.resolveSibling(stripExtension(base.getFileName().toString()) + ".snap");
+        if (base.getParent() != null) Files.createDirectories(base.getParent());
+
+        // A single un-numbered log from before segmentation becomes segment 0
+        if (Files.exists(base) && segments().isEmpty()) {
+            Files.move(base, segmentPath(0), StandardCopyOption.ATOMIC_MOVE);
+        }
+        recover();
+
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "order-journal-sync"));
+        this.compactor = Executors.newSingleThreadExecutor(r -> daemon(r, "order-journal-compactor"));
+        syncer.scheduleWithFixedDelay(this::syncQuietly, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::syncQuietly, "order-journal-shutdown"));
+    }
+
+    // ---------------- Public API ----------------
+
+    public synchronized List<Order> getAllOrders() {
+        return new ArrayList<>(orders);
+    }
+
+    // No lock: the journal lock is held across fsyncs, and this is polled from the EDT
+    public int size() {
+        return count;
+    }
+
+    // Snapshot plus segment bytes read when the journal was opened
+    public long recoveredBytes() {
+        return recoveredBytes;
+    }
+
+    // Assigns the next id and appends the order; O(1) regardless of history size. Returns the bytes written.
+    // The id is only taken once the record is written, so a failed append leaves the sequence untouched.
+    public synchronized int append(Order order) throws IOException {
+        int previousId = order.getId();
+        order.setId(lastId + 1);
+        if (order.getCreatedAt() == 0) order.setCreatedAt(System.currentTimeMillis());
+        int bytes;
+        try {
+            bytes = writeRecord(order);
+        } catch (IOException e) {
+            order.setId(previousId);
+            throw e;
+        }
+        lastId++;
+        orders.add(order);
+        count = orders.size();
+        maybeSnapshot();
+        return bytes;
+    }
+
+    // Appends an order that already has an id (imports); keeps the sequence ahead of it
+    synchronized void restore(Order order) throws IOException {
+        writeRecord(order);
+        orders.add(order);
+        count = orders.size();
+        lastId = Math.max(lastId, order.getId());
+        maybeSnapshot();
+    }
+
+    // Force everything appended so far to disk
+    public synchronized void sync() throws IOException {
+        if (unsynced == 0) return;
+        channel.force(false);
+        unsynced = 0;
+    }
+
+    // Rotate now and write a snapshot in the background
+    public synchronized void snapshot() throws IOException {
+        if (compacting) return;
+        compacting = true;
+
+        sync();
+        channel.close();
+        segment++;
+        channel = openSegment(segment);
+        sinceSnapshot = 0;
+
+        int firstLive = segment;
+        int idAtRotation = lastId;
+        List<Order> image = new ArrayList<>(orders);
+        compactor.execute(() -> writeSnapshot(firstLive, idAtRotation, image));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        syncer.shutdown();
+        compactor.shutdown();
+        sync();
+        channel.close();
+        synchronized (OrderJournal.class) { OPEN.remove(base); }
+    }
+
+    // ---------------- Writing ----------------
+
+    private int writeRecord(Order order) throws IOException {
+        long start = channel.position();
+        int bytes;
+        try {
+            bytes = OrderRecords.write(channel, order);
+        } catch (IOException e) {
+            discardPartial(start);
+            throw e;
+        }
+        if (++unsynced >= SYNC_EVERY) sync();
+        return bytes;
+    }
+
+    // A failed write may have left part of a frame behind. Cut it off so later records
+    // don't land after a torn frame (recovery stops at the first bad frame and would drop them);
+    // if even that fails, move on to a fresh segment and leave the torn frame at the old one's tail.
+    private void discardPartial(long start) {
+        try {
+            channel.truncate(start);
+            channel.position(start);
+        } catch (IOException e) {
+            e.printStackTrace();
+            try {
+                channel.close();
+                segment++;
+                channel = openSegment(segment);
+            } catch (IOException rollFailed) {
+                rollFailed.printStackTrace();
+            }
+        }
+    }
+
+    // Called after the order is in memory, so the snapshot image includes it
+    private void maybeSnapshot() throws IOException {
+        if (++sinceSnapshot >= SNAPSHOT_EVERY) snapshot();
+    }
+
+    // The old snapshot and the segments stay until the new snapshot and its rename are on disk
+    private void writeSnapshot(int firstLive, int idAtRotation, List<Order> image) {
+        try {
+            OrderSnapshot.write(snapshotFile, firstLive, idAtRotation, image);
+            for (int seg : segments()) {
+                if (seg < firstLive) Files.deleteIfExists(segmentPath(seg));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            synchronized (this) { compacting = false; }
+        }
+    }
+
+    // ---------------- Recovery ----------------
+
+    private void recover() throws IOException {
+        int firstLive = 0;
+        List<Integer> segs = segments();
+        OrderSnapshot snap;
+        try {
+            snap = OrderSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            // Segments are only deleted (lowest first) after a snapshot covering them is durable,
+            // so while segment 0 is still here the segments alone hold the full history
+            if (segs.isEmpty() || segs.get(0) != 0) {
+                throw new IOException("Order snapshot is unreadable and the segments it covers are gone; "
+                        + "refusing to start with a partial order history", e);
+            }
+            e.printStackTrace();
+            snap = null;
+        }
+        if (snap != null) {
+            orders.addAll(snap.orders);
+            lastId = snap.lastId;
+            firstLive = snap.firstLiveSegment;
+            recoveredBytes += Files.size(snapshotFile);
+        }
+
+        segment = firstLive;
+        for (int seg : segs) {
+            if (seg < firstLive) {
+                // Already covered by the snapshot; left over from an interrupted cleanup
+                Files.deleteIfExists(segmentPath(seg));
+                continue;
+            }
+            segment = seg;
+            replaySegment(seg);
+        }
+        channel = openSegment(segment);
+        long end = channel.size();
+        channel.position(end);
+        count = orders.size();
+    }
+
+    private void replaySegment(int seg) throws IOException {
+        try (FileChannel ch = FileChannel.open(segmentPath(seg), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) ch.size());
+            while (buf.hasRemaining() && ch.read(buf) > 0) { }
+            buf.flip();
+            recoveredBytes += buf.limit();
+
+            int good = OrderRecords.readAll(buf, o -> {
+                orders.add(o);
+                lastId = Math.max(lastId, o.getId());
+                sinceSnapshot++;
+            });
+            // Drop a torn tail left by a crash mid-write
+            if (good < ch.size()) ch.truncate(good);
+        }
+    }
+
+    // ---------------- Files ----------------
+
+    private FileChannel openSegment(int seg) throws IOException {
+        return FileChannel.open(segmentPath(seg), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(int seg) {
+        return base.resolveSibling(base.getFileName() + "." + seg);
+    }
+
+    // Segment numbers on disk, ascending
+    private List<Integer> segments() throws IOException {
+        List<Integer> segs = new ArrayList<>();
+        String prefix = base.getFileName() + ".";
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(base.toAbsolutePath().getParent(), prefix + "*")) {
+            for (Path p : dir) {
+                String suffix = p.getFileName().toString().substring(prefix.length());
+                try {
+                    segs.add(Integer.parseInt(suffix));
+                } catch (NumberFormatException ignored) { }
+            }
+        }
+        Collections.sort(segs);
+        return segs;
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
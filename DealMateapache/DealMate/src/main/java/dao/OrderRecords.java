@@ -0,0 +1,83 @@
+package dao;
+
+import model.Order;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Record framing and payload encoding shared by the order journal and its snapshots.
+ * A record is [length][crc32][payload].
+ */
+final class OrderRecords {
+
+    static final int HEADER = 8;
+    private static final int MAX_RECORD = 16 * 1024 * 1024;
+
+    private OrderRecords() {}
+
+    // Frame one order, ready to be written to a channel
+    static ByteBuffer frame(Order order) throws IOException {
+        byte[] payload = encode(order);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + payload.length);
+        buf.putInt(payload.length);
+        buf.putInt((int) crc.getValue());
+        buf.put(payload);
+        buf.flip();
+        return buf;
+    }
+
+    // Returns the record's size on disk
+    static int write(FileChannel channel, Order order) throws IOException {
+        ByteBuffer buf = frame(order);
+        while (buf.hasRemaining()) channel.write(buf);
+        return buf.limit();
+    }
+
+    static void write(OutputStream out, Order order) throws IOException {
+        ByteBuffer buf = frame(order);
+        out.write(buf.array(), 0, buf.limit());
+    }
+
+    /**
+     * Reads records from buf until it is exhausted or a record is torn/corrupt.
+     * Returns the offset just past the last good record.
+     */
+    static int readAll(ByteBuffer buf, Consumer<Order> sink) throws IOException {
+        CRC32 crc = new CRC32();
+        int good = buf.position();
+        while (buf.remaining() >= HEADER) {
+            int len = buf.getInt();
+            int expected = buf.getInt();
+            if (len < 0 || len > MAX_RECORD || len > buf.remaining()) break;
+
+            byte[] payload = new byte[len];
+            buf.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != expected) break;
+
+            sink.accept(decode(payload));
+            good = buf.position();
+        }
+        return good;
+    }
+
+    // ---------------- Payload encoding ----------------
+
+    // Payloads are BinaryCodec orders, which start with the schema version
+    static byte[] encode(Order o) {
+        return BinaryCodec.encodeOrder(o);
+    }
+
+    static Order decode(byte[] payload) throws IOException {
+        return BinaryCodec.decodeOrder(ByteBuffer.wrap(payload));
+    }
+}
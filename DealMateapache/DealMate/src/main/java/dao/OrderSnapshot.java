@@ -0,0 +1,92 @@
+package dao;
+
+import model.Order;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact point-in-time image of the order journal.
+ *
+ * Layout: [magic][version][firstLiveSegment][lastId][count] followed by
+ * count order records in the journal's own framing. A snapshot covers every
+ * segment below firstLiveSegment, so those can be deleted once it is on disk.
+ * Snapshots are written and fsynced to a temp file, read back, moved into
+ * place atomically, and the directory is fsynced so the rename is durable too;
+ * until then the previous snapshot and its segments are left alone.
+ */
+final class OrderSnapshot {
+
+    private static final int MAGIC = 0x444D534E; // "DMSN"
+    private static final int VERSION = 1;
+    private static final int HEADER = 20;
+
+    final int firstLiveSegment;
+    final int lastId;
+    final List<Order> orders;
+
+    private OrderSnapshot(int firstLiveSegment, int lastId, List<Order> orders) {
+        this.firstLiveSegment = firstLiveSegment;
+        this.lastId = lastId;
+        this.orders = orders;
+    }
+
+    // Returns null when there is no snapshot; a snapshot that exists but cannot be read is an error
+    static OrderSnapshot read(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) ch.size());
+            while (buf.hasRemaining() && ch.read(buf) > 0) { }
+            buf.flip();
+            if (buf.remaining() < HEADER || buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("Not a readable order snapshot: " + file);
+            }
+
+            int firstLive = buf.getInt();
+            int lastId = buf.getInt();
+            int count = buf.getInt();
+            List<Order> orders = new ArrayList<>(count);
+            OrderRecords.readAll(buf, orders::add);
+            if (orders.size() != count) {
+                throw new IOException("Order snapshot " + file + " is damaged: " + orders.size() + " of " + count + " orders readable");
+            }
+            return new OrderSnapshot(firstLive, lastId, orders);
+        }
+    }
+
+    static void write(Path file, int firstLiveSegment, int lastId, List<Order> orders) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 64 * 1024);
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(firstLiveSegment).putInt(lastId).putInt(orders.size());
+            out.write(header.array());
+
+            for (Order o : orders) OrderRecords.write(out, o);
+            out.flush();
+            ch.force(true);
+        }
+        // Read it back before it replaces the previous snapshot
+        OrderSnapshot check = read(tmp);
+        if (check == null || check.orders.size() != orders.size()) {
+            throw new IOException("Order snapshot " + tmp + " did not read back");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    // Makes a rename in dir durable. Windows can't open a directory for this; NTFS journals the rename itself.
+    static void syncDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ignored) { }
+    }
+}
@@ -0,0 +1,68 @@
+package dao;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one load or save of a data file.
+ *
+ * Recorded with the calling thread's stack, so a recording taken in
+ * production shows which UI action caused a slow read or fsync on the EDT:
+ *
+ *   java -XX:StartFlightRecording:filename=dealmate.jfr ...
+ *   jfr print --events dealmate.Persistence dealmate.jfr
+ *
+ * When no recording is running, start() and finish() cost next to nothing.
+ */
+@Name("dealmate.Persistence")
+@Label("Store I/O")
+@Category({"DealMate", "Persistence"})
+@Description("A load or save of one of DealMate's data files")
+public class PersistenceEvent extends Event {
+
+    @Label("Store")
+    public String store;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("File")
+    public String file;
+
+    @Label("Rows")
+    @Description("Records read or written")
+    public long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Failed")
+    public boolean failed;
+
+    public static PersistenceEvent start(String store, String operation, String file) {
+        PersistenceEvent e = new PersistenceEvent();
+        e.store = store;
+        e.operation = operation;
+        e.file = file;
+        e.begin();
+        return e;
+    }
+
+    public void finish(long rows, long bytes) {
+        end();
+        if (!shouldCommit()) return;
+        this.rows = rows;
+        this.bytes = bytes;
+        commit();
+    }
+
+    public void fail() {
+        failed = true;
+        finish(0, 0);
+    }
+}
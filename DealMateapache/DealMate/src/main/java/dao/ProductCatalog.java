@@ -0,0 +1,119 @@
+package dao;
+
+import java.util.*;
+import model.Product;
+
+/**
+ * In-memory product catalog.
+ *
+ * - id index: primitive int-keyed hash map, O(1) lookup/remove by id
+ * - seller index: sellerId -> that seller's products
+ * - ordered view: products kept sorted by id, which is also insertion order
+ *   because ids come from a monotonic allocator
+ *
+ * Not thread-safe; callers confine it to one thread or synchronize on it.
+ */
+public class ProductCatalog {
+
+    private final IntObjectMap<Product> byId;
+    private final IntObjectMap<List<Product>> bySeller = new IntObjectMap<>();
+    private final ArrayList<Product> ordered;
+    private final List<Product> orderedView;
+    private int nextId = 1;
+
+    public ProductCatalog() {
+        this(Collections.emptyList());
+    }
+
+    public ProductCatalog(Collection<Product> initial) {
+        byId = new IntObjectMap<>(Math.max(16, initial.size()));
+        ordered = new ArrayList<>(initial.size());
+        orderedView = Collections.unmodifiableList(ordered);
+
+        List<Product> sorted = new ArrayList<>(initial);
+        sorted.sort(Comparator.comparingInt(Product::getId));
+        for (Product p : sorted) put(p);
+    }
+
+    public int size() { return ordered.size(); }
+
+    public Product get(int id) { return byId.get(id); }
+
+    public boolean contains(int id) { return byId.containsKey(id); }
+
+    // Live, read-only view in id order
+    public List<Product> all() { return orderedView; }
+
+    public List<Product> bySeller(int sellerId) {
+        List<Product> list = bySeller.get(sellerId);
+        return list != null ? Collections.unmodifiableList(list) : Collections.emptyList();
+    }
+
+    // The id the next add() will hand out
+    public int peekNextId() { return nextId; }
+
+    // Never hand out ids below next, e.g. ids of deleted products that orders may still refer to
+    public void reserveIds(int next) {
+        if (next > nextId) nextId = next;
+    }
+
+    // Assigns a fresh id and inserts the product
+    public Product add(Product p) {
+        p.setId(nextId++);
+        put(p);
+        return p;
+    }
+
+    // Inserts or replaces a product that already has an id
+    public void put(Product p) {
+        Product old = byId.put(p.getId(), p);
+        if (old != null) {
+            ordered.set(indexOf(p.getId()), p);
+            unlinkSeller(old);
+        } else if (ordered.isEmpty() || ordered.get(ordered.size() - 1).getId() < p.getId()) {
+            ordered.add(p);
+        } else {
+            ordered.add(-indexOf(p.getId()) - 1, p);
+        }
+        bySeller(p, true).add(p);
+        if (p.getId() >= nextId) nextId = p.getId() + 1;
+    }
+
+    // Returns the removed product, or null if the id was unknown
+    public Product remove(int id) {
+        Product p = byId.remove(id);
+        if (p == null) return null;
+        ordered.remove(indexOf(id));
+        unlinkSeller(p);
+        return p;
+    }
+
+    // Binary search on the id-ordered list; negative result as in Collections.binarySearch
+    private int indexOf(int id) {
+        int lo = 0, hi = ordered.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midId = ordered.get(mid).getId();
+            if (midId < id) lo = mid + 1;
+            else if (midId > id) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private List<Product> bySeller(Product p, boolean create) {
+        List<Product> list = bySeller.get(p.getSellerId());
+        if (list == null && create) {
+            list = new ArrayList<>();
+            bySeller.put(p.getSellerId(), list);
+        }
+        return list;
+    }
+
+    private void unlinkSeller(Product p) {
+        List<Product> list = bySeller(p, false);
+        if (list == null) return;
+        list.remove(p);
+        if (list.isEmpty()) bySeller.remove(p.getSellerId());
+    }
+}
@@ -4,51 +4,218 @@ import ui.CSVManager; // wherever your CSVManager is
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import model.Product;  // make sure this matches the actual package of your Product class
 
 
 public class ProductDAO {
 
-    private List<Product> products;
+    // Fold the delta into products.csv after this many appended rows
+    private static final int COMPACT_AFTER = 500;
+
+    // Past this many changes waiting for the next search, drop the index and rebuild it then
+    private static final int INDEX_BACKLOG_MAX = 50_000;
+
+    // Mutations within this window share one delta write + fsync
+    private static final long COMMIT_WINDOW_MS = Long.getLong("dealmate.products.commitWindowMs", 25);
+    private static final ProductWriteBehind WRITE_BEHIND = new ProductWriteBehind(COMMIT_WINDOW_MS);
+
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "product-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final LatencyHistogram ADD_TIME = Metrics.timer("dealmate_product_add_seconds", "ProductDAO.addProduct, excluding the delayed disk write");
+    private static final LatencyHistogram DELETE_TIME = Metrics.timer("dealmate_product_delete_seconds", "ProductDAO.deleteProduct, excluding the delayed disk write");
+    private static final LatencyHistogram SEARCH_TIME = Metrics.timer("dealmate_product_search_seconds", "ProductDAO search calls, including the wait for the lock");
+    private static final LatencyHistogram INDEX_BUILD_TIME = Metrics.timer("dealmate_product_index_build_seconds", "Building the search index on first search");
+    private static final LatencyHistogram FLUSH_TIME = Metrics.timer("dealmate_product_flush_seconds", "ProductDAO.flush, waiting for queued writes");
+    private static final Metrics.Counter COMPACTIONS = Metrics.counter("dealmate_product_compactions_total", "Delta compactions started");
+
+    private final ProductCatalog catalog;
+    private final List<ChangeListener<Product>> listeners = new CopyOnWriteArrayList<>();
+    private final Object indexLock = new Object();
+    private ProductSearchIndex searchIndex; // built on the first search, then caught up by each search; guarded by indexLock
+    private boolean indexed;                // changes are queued for the index; guarded by this
+    private List<IndexChange> indexBacklog = new ArrayList<>(); // guarded by this
+    private volatile int productCount; // catalog.size(), readable without the lock (metrics gauge)
+    private int deltaRows;
+    private boolean compacting; // guarded by this
+
+    private record IndexChange(Product product, boolean added) {}
 
     public ProductDAO() {
-        // Load products from CSV at startup
-        products = CSVManager.loadProducts();
-        if (products == null) products = new ArrayList<>();
+        // Load products (base CSV + delta) at startup
+        catalog = CSVManager.loadProductCatalog();
+        productCount = catalog.size();
+        if (CSVManager.hasProductDelta()) compact();
+        Metrics.gauge("dealmate_products", "Products in the catalog", this::size);
     }
 
-    public List<Product> getAllProducts() {
-        return products;
+    // The catalog is not thread-safe: every read takes the same lock as add/delete and hands out copies.
+    // Searches rank under indexLock instead, so lookups never wait for a ranking or an index build.
+
+    // Copy in id order; use a ChangeListener to follow later adds/deletes
+    public synchronized List<Product> getAllProducts() {
+        return new ArrayList<>(catalog.all());
     }
 
-    public void addProduct(Product product) {
-        // Give product an ID
-        int maxId = products.stream().mapToInt(Product::getId).max().orElse(0);
-        product.setId(maxId + 1);
+    public synchronized Product getProduct(int id) {
+        return catalog.get(id);
+    }
 
-        products.add(product);
+    public synchronized List<Product> getProductsBySeller(int sellerId) {
+        return new ArrayList<>(catalog.bySeller(sellerId));
+    }
 
-        // Save immediately to CSV
-        CSVManager.saveProducts(products);
+    // No lock, so the diagnostics panel never waits behind a writer
+    public int size() {
+        return productCount;
+    }
+
+    // The id the next addProduct() will hand out
+    public synchronized int peekNextId() {
+        return catalog.peekNextId();
+    }
+
+    public void addChangeListener(ChangeListener<Product> l) { listeners.add(l); }
+    public void removeChangeListener(ChangeListener<Product> l) { listeners.remove(l); }
+
+    public void addProduct(Product product) {
+        long start = System.nanoTime();
+        synchronized (this) {
+            // Give product an ID from the catalog's allocator
+            catalog.add(product);
+            productCount = catalog.size();
+            queueIndexChange(product, true);
+
+            // Queue one delta row; the writer thread commits it with its neighbours
+            WRITE_BEHIND.enqueue(CSVManager.productUpsertRow(product));
+            maybeCompact();
+        }
+        ADD_TIME.recordSince(start);
+        for (ChangeListener<Product> l : listeners) l.added(product);
     }
 
     public void deleteProduct(int id) {
-        products.removeIf(p -> p.getId() == id);
+        long start = System.nanoTime();
+        Product removed;
+        synchronized (this) {
+            removed = catalog.remove(id);
+            if (removed == null) return;
+            productCount = catalog.size();
+            queueIndexChange(removed, false);
 
-        // Save updated list
-        CSVManager.saveProducts(products);
+            // Tombstone row; the compactor drops it from products.csv later
+            WRITE_BEHIND.enqueue(CSVManager.productTombstoneRow(id));
+            maybeCompact();
+        }
+        DELETE_TIME.recordSince(start);
+        for (ChangeListener<Product> l : listeners) l.removed(removed);
     }
 
+    // All matches, best first
     public List<Product> searchProducts(String name) {
-        List<Product> list = new ArrayList<>();
-        if (name == null || name.trim().isEmpty()) return list;
+        return searchProducts(name, Integer.MAX_VALUE);
+    }
+
+    // Best matches first, at most limit of them (see ProductSearchIndex for the ranking)
+    public List<Product> searchProducts(String name, int limit) {
+        if (name == null || name.trim().isEmpty()) return new ArrayList<>();
+        long start = System.nanoTime();
+        List<Product> result;
+        synchronized (indexLock) {
+            result = index().search(name, limit, this::getProduct);
+        }
+        SEARCH_TIME.recordSince(start);
+        return result;
+    }
+
+    // Ranked ids of the matches; resolve with getProduct() as rows are shown.
+    // An interrupted caller gets a CancellationException instead of finishing the ranking.
+    public int[] searchProductIds(String name, int limit) {
+        if (name == null || name.trim().isEmpty()) return new int[0];
+        long start = System.nanoTime();
+        int[] ids;
+        synchronized (indexLock) {
+            ids = index().searchIds(name, limit);
+        }
+        SEARCH_TIME.recordSince(start);
+        return ids;
+    }
+
+    // Caller holds this. Changes are applied by the next search, in catalog order
+    private void queueIndexChange(Product p, boolean added) {
+        if (!indexed) return;
+        if (indexBacklog.size() >= INDEX_BACKLOG_MAX) {
+            indexed = false; // cheaper to rebuild than to replay
+            indexBacklog = new ArrayList<>();
+            return;
+        }
+        indexBacklog.add(new IndexChange(p, added));
+    }
 
-        String searchLower = name.toLowerCase();
-        for (Product p : products) {
-            if (p.getName().toLowerCase().contains(searchLower)) {
-                list.add(p);
+    // Caller holds indexLock. Builds the index, or catches it up with the queued changes;
+    // only taking the image or the queue happens under this
+    private ProductSearchIndex index() {
+        List<Product> image = null;
+        List<IndexChange> changes;
+        synchronized (this) {
+            if (!indexed) {
+                image = new ArrayList<>(catalog.all());
+                indexed = true;
             }
+            changes = indexBacklog;
+            indexBacklog = new ArrayList<>();
         }
-        return list;
+        if (image != null) {
+            long start = System.nanoTime();
+            searchIndex = new ProductSearchIndex(image);
+            INDEX_BUILD_TIME.recordSince(start);
+        } else {
+            for (IndexChange c : changes) {
+                if (c.added()) searchIndex.add(c.product());
+                else searchIndex.remove(c.product());
+            }
+        }
+        return searchIndex;
+    }
+
+    // Barrier: returns true once every add/delete made so far is on disk, false if the delta can't be written
+    public boolean flush() {
+        long start = System.nanoTime();
+        boolean durable = WRITE_BEHIND.flush();
+        FLUSH_TIME.recordSince(start);
+        return durable;
+    }
+
+    private void maybeCompact() {
+        if (++deltaRows >= COMPACT_AFTER) compact();
+    }
+
+    // Rotation and the catalog image both happen on the compactor thread, rotation first:
+    // every row in the rotated delta then belongs to a change the image already has.
+    private synchronized void compact() {
+        if (compacting) return;
+        compacting = true;
+        deltaRows = 0;
+        COMPACTIONS.inc();
+        COMPACTOR.execute(() -> {
+            try {
+                CSVManager.rotateProductDelta();
+                List<Product> image;
+                int nextId;
+                synchronized (this) {
+                    image = new ArrayList<>(catalog.all());
+                    nextId = catalog.peekNextId(); // kept in the base so deleted ids aren't reused
+                }
+                CSVManager.compactProducts(image, nextId);
+            } finally {
+                synchronized (this) { compacting = false; }
+            }
+        });
     }
 }
@@ -0,0 +1,330 @@
+package dao;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntFunction;
+import model.Product;
+
+/**
+ * Inverted index over product names.
+ *
+ * Names are split into lower-case letter/digit tokens. Each distinct token
+ * (a term) keeps a sorted posting list of product ids. Terms are also kept
+ * in a sorted map for prefix lookups and in a trigram map for matches
+ * inside a word, so "phone" still finds "iPhone" as the old contains() did.
+ * Query tokens shorter than a trigram ("ph", "10") are looked for inside
+ * every term instead; that scans the dictionary, not the products.
+ *
+ * A query matches a product when every query token matches one of its
+ * terms. Per token the best match counts: exact 4, prefix 2, inside a word 1.
+ * Results are ranked by total score, then by id (older products first), and
+ * cut at the requested limit; a small limit keeps only a bounded heap of
+ * the best hits instead of sorting all of them.
+ *
+ * A search on an interrupted thread stops between merges and every few
+ * thousand ranked hits with a CancellationException, so a superseded query
+ * gives up the DAO's lock early.
+ *
+ * add/remove keep the index current; the caller supplies id -> Product when
+ * searching. Not thread-safe; ProductDAO guards it with its own lock.
+ */
+public class ProductSearchIndex {
+
+    private static final int EXACT = 4, PREFIX = 2, INFIX = 1;
+
+    private final Map<String, Term> terms = new HashMap<>();
+    private final TreeMap<String, Term> sorted = new TreeMap<>();
+    private final Map<String, List<Term>> grams = new HashMap<>();
+    private int size;
+
+    public ProductSearchIndex() {}
+
+    public ProductSearchIndex(Collection<Product> products) {
+        for (Product p : products) add(p);
+    }
+
+    public int size() { return size; }
+
+    public int termCount() { return terms.size(); }
+
+    public void add(Product p) {
+        for (String token : distinctTokens(p.getName())) {
+            Term t = terms.get(token);
+            if (t == null) t = newTerm(token);
+            t.postings.add(p.getId());
+        }
+        size++;
+    }
+
+    // p must carry the name it was indexed with
+    public void remove(Product p) {
+        for (String token : distinctTokens(p.getName())) {
+            Term t = terms.get(token);
+            if (t == null) continue;
+            t.postings.remove(p.getId());
+            if (t.postings.size == 0) dropTerm(t);
+        }
+        size--;
+    }
+
+    /**
+     * Ranked matches for the query, at most limit of them.
+     * Ids that lookup cannot resolve are skipped.
+     */
+    public List<Product> search(String query, int limit, IntFunction<Product> lookup) {
+        int[] ids = searchIds(query, limit);
+        List<Product> result = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Product p = lookup.apply(ids[i]);
+            if (p != null) result.add(p);
+        }
+        return result;
+    }
+
+    // Ranked ids only, at most limit; callers resolve products as they need them
+    public int[] searchIds(String query, int limit) {
+        List<String> tokens = distinctTokens(query);
+        if (tokens.isEmpty() || limit <= 0) return new int[0];
+
+        // [id << 8 | score] per product, sorted by id; intersected token by token
+        long[] hits = null;
+        for (String token : tokens) {
+            checkInterrupted();
+            long[] m = matches(token);
+            hits = (hits == null) ? m : intersect(hits, m);
+            if (hits.length == 0) return new int[0];
+        }
+        return rank(hits, limit);
+    }
+
+    // ---------------- Matching ----------------
+
+    // Products matching one query token, sorted by id, each with its best score
+    private long[] matches(String token) {
+        List<Term> matched = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+
+        // exact and prefix: one range scan of the sorted dictionary
+        for (Term t : sorted.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+            matched.add(t);
+            scores.add(t.text.length() == token.length() ? EXACT : PREFIX);
+        }
+
+        // inside a word: candidates share the query's rarest trigram
+        if (token.length() < 3) {
+            // too short for a trigram: check every term
+            for (Term t : terms.values()) {
+                if (!t.text.startsWith(token) && t.text.contains(token)) {
+                    matched.add(t);
+                    scores.add(INFIX);
+                }
+            }
+        } else {
+            List<Term> candidates = null;
+            for (int i = 0; i + 3 <= token.length(); i++) {
+                List<Term> g = grams.get(token.substring(i, i + 3));
+                if (g == null) { candidates = null; break; }
+                if (candidates == null || g.size() < candidates.size()) candidates = g;
+            }
+            if (candidates != null) {
+                for (Term t : candidates) {
+                    if (!t.text.startsWith(token) && t.text.contains(token)) {
+                        matched.add(t);
+                        scores.add(INFIX);
+                    }
+                }
+            }
+        }
+
+        if (matched.isEmpty()) return new long[0];
+
+        // union of the posting lists: pairwise merges, O(n log terms)
+        ArrayDeque<long[]> lists = new ArrayDeque<>(matched.size());
+        for (int i = 0; i < matched.size(); i++) lists.add(withScore(matched.get(i).postings, scores.get(i)));
+        while (lists.size() > 1) {
+            checkInterrupted();
+            lists.add(union(lists.poll(), lists.poll()));
+        }
+        return lists.poll();
+    }
+
+    private static long[] withScore(IntList ids, int score) {
+        long[] out = new long[ids.size];
+        for (int i = 0; i < ids.size; i++) out[i] = pack(ids.values[i], score);
+        return out;
+    }
+
+    // Merge of two id-sorted lists; an id in both keeps the higher score
+    private static long[] union(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            int ia = idOf(a[i]), ib = idOf(b[j]);
+            if (ia < ib) out[n++] = a[i++];
+            else if (ia > ib) out[n++] = b[j++];
+            else out[n++] = pack(ia, Math.max(scoreOf(a[i++]), scoreOf(b[j++])));
+        }
+        while (i < a.length) out[n++] = a[i++];
+        while (j < b.length) out[n++] = b[j++];
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Merge of two id-sorted lists; scores add up
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            int ia = idOf(a[i]), ib = idOf(b[j]);
+            if (ia < ib) i++;
+            else if (ia > ib) j++;
+            else out[n++] = pack(ia, Math.min(255, scoreOf(a[i++]) + scoreOf(b[j++])));
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Best limit hits, best first: all of them by counting sort, a few through a bounded heap
+    private static int[] rank(long[] hits, int limit) {
+        return limit < hits.length / 4 ? topK(hits, limit) : sortAll(hits, limit);
+    }
+
+    // Counting sort on score (hits are already in id order, and the sort is stable): O(n)
+    private static int[] sortAll(long[] hits, int limit) {
+        checkInterrupted();
+        int[] next = new int[256];
+        for (long h : hits) next[scoreOf(h)]++;
+        int pos = 0;
+        for (int score = 255; score >= 0; score--) {
+            int count = next[score];
+            next[score] = pos;
+            pos += count;
+        }
+        checkInterrupted();
+        int[] ids = new int[hits.length];
+        for (long h : hits) ids[next[scoreOf(h)]++] = idOf(h);
+        return ids.length > limit ? Arrays.copyOf(ids, limit) : ids;
+    }
+
+    // Min-heap of the best k seen so far, keyed so a bigger key ranks higher: O(n log k), O(k) memory
+    private static int[] topK(long[] hits, int k) {
+        long[] heap = new long[k];
+        int n = 0;
+        for (int h = 0; h < hits.length; h++) {
+            if ((h & 4095) == 0) checkInterrupted();
+            long key = rankKey(hits[h]);
+            if (n < k) {
+                int i = n++;
+                while (i > 0 && heap[(i - 1) >>> 1] > key) {
+                    heap[i] = heap[(i - 1) >>> 1];
+                    i = (i - 1) >>> 1;
+                }
+                heap[i] = key;
+            } else if (key > heap[0]) {
+                int i = 0;
+                while (true) {
+                    int c = 2 * i + 1;
+                    if (c >= k) break;
+                    if (c + 1 < k && heap[c + 1] < heap[c]) c++;
+                    if (heap[c] >= key) break;
+                    heap[i] = heap[c];
+                    i = c;
+                }
+                heap[i] = key;
+            }
+        }
+        Arrays.sort(heap, 0, n);
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = Integer.MAX_VALUE - (int) heap[n - 1 - i];
+        return ids;
+    }
+
+    // Score first, then the lower id
+    private static long rankKey(long hit) { return ((long) scoreOf(hit) << 32) | (Integer.MAX_VALUE - idOf(hit)); }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException("search interrupted");
+    }
+
+    private static long pack(int id, int score) { return ((long) id << 8) | score; }
+    private static int idOf(long packed) { return (int) (packed >>> 8); }
+    private static int scoreOf(long packed) { return (int) (packed & 0xFF); }
+
+    // ---------------- Dictionary ----------------
+
+    private Term newTerm(String token) {
+        Term t = new Term(token);
+        terms.put(token, t);
+        sorted.put(token, t);
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            List<Term> list = grams.computeIfAbsent(token.substring(i, i + 3), k -> new ArrayList<>(2));
+            if (list.isEmpty() || list.get(list.size() - 1) != t) list.add(t); // "aaaa" has "aaa" twice
+        }
+        return t;
+    }
+
+    private void dropTerm(Term t) {
+        terms.remove(t.text);
+        sorted.remove(t.text);
+        for (int i = 0; i + 3 <= t.text.length(); i++) {
+            String g = t.text.substring(i, i + 3);
+            List<Term> list = grams.get(g);
+            if (list == null) continue;
+            list.remove(t);
+            if (list.isEmpty()) grams.remove(g);
+        }
+    }
+
+    // Lower-case runs of letters/digits, each once, in order of appearance
+    static List<String> distinctTokens(String text) {
+        List<String> out = new ArrayList<>(4);
+        if (text == null) return out;
+        String s = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean word = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) {
+                String token = s.substring(start, i);
+                if (!out.contains(token)) out.add(token);
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static final class Term {
+        final String text;
+        final IntList postings = new IntList();
+
+        Term(String text) { this.text = text; }
+    }
+
+    /** Sorted int set on a plain array; appends are O(1) when ids arrive in order. */
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int v) {
+            if (size > 0 && values[size - 1] >= v) {
+                int i = Arrays.binarySearch(values, 0, size, v);
+                if (i >= 0) return;
+                insertAt(-i - 1, v);
+                return;
+            }
+            insertAt(size, v);
+        }
+
+        void remove(int v) {
+            int i = Arrays.binarySearch(values, 0, size, v);
+            if (i < 0) return;
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            size--;
+        }
+
+        private void insertAt(int i, int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = v;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package dao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import ui.CSVManager;
+
+/**
+ * Write-behind queue for product delta rows.
+ *
+ * Mutations only enqueue a row and return. A writer thread waits for the
+ * first row, keeps collecting for the commit window, then appends the whole
+ * batch to products.delta.csv with one write and one fsync (group commit).
+ * flush() is a barrier: it returns once every row enqueued before the call
+ * is durable. A shutdown hook flushes whatever is still pending.
+ *
+ * A batch that fails to write goes back to the front of the queue and is
+ * retried after RETRY_MS; rows only count as committed once a write of them
+ * succeeds. While the writer is failing, flush() returns false instead of
+ * waiting.
+ */
+public class ProductWriteBehind {
+
+    private static final long RETRY_MS = 1000;
+
+    private final long windowMs;
+    private final List<String> pending = new ArrayList<>();
+    private long enqueued;   // rows handed to enqueue()
+    private long committed;  // rows known to be on disk
+    private boolean flushRequested;
+    private boolean failing;  // the last write attempt failed
+
+    public ProductWriteBehind(long windowMs) {
+        this.windowMs = windowMs;
+        Thread writer = new Thread(this::run, "product-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "product-write-behind-shutdown"));
+    }
+
+    public synchronized void enqueue(String row) {
+        pending.add(row);
+        enqueued++;
+        notifyAll();
+    }
+
+    // Block until everything enqueued so far has been committed; false if the writer can't write right now
+    public synchronized boolean flush() {
+        long target = enqueued;
+        if (committed >= target) return true;
+        flushRequested = true;
+        notifyAll();
+        boolean interrupted = false;
+        while (committed < target && !failing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return committed >= target;
+    }
+
+    public synchronized int pendingRows() {
+        return pending.size();
+    }
+
+    private void run() {
+        while (true) {
+            List<String> batch;
+            long upTo;
+            try {
+                synchronized (this) {
+                    while (pending.isEmpty()) wait();
+                    // Let more rows join this commit unless someone is waiting on flush()
+                    long deadline = System.currentTimeMillis() + windowMs;
+                    long left;
+                    while (!flushRequested && (left = deadline - System.currentTimeMillis()) > 0) wait(left);
+
+                    batch = new ArrayList<>(pending);
+                    pending.clear();
+                    upTo = enqueued;
+                    flushRequested = false;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                CSVManager.appendProductDelta(batch);
+            } catch (IOException e) {
+                e.printStackTrace();
+                synchronized (this) {
+                    // Keep the rows, ahead of anything queued since
+                    pending.addAll(0, batch);
+                    failing = true;
+                    notifyAll();
+                }
+                try {
+                    Thread.sleep(RETRY_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                continue;
+            }
+
+            synchronized (this) {
+                committed = upTo;
+                failing = false;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dao;
+
+import model.Order;
+import model.Product;
+import model.User;
+
+/**
+ * Application-scoped home of the stores. Each DAO is opened once, on first
+ * use, and the same instance is handed to every frame, so the catalog and
+ * the order history are loaded and held in memory only once.
+ *
+ * Opening a store reads files; call the accessors (or preload()) off the
+ * EDT when the store may not be open yet.
+ */
+public final class Repositories {
+
+    private static final Repositories APP = new Repositories();
+
+    private volatile ProductDAO products;
+    private volatile UserDAO users;
+    private volatile OrderDAO orders;
+
+    private Repositories() {}
+
+    public static Repositories get() {
+        return APP;
+    }
+
+    public ProductDAO products() {
+        ProductDAO p = products;
+        if (p == null) {
+            synchronized (this) {
+                if (products == null) products = new ProductDAO();
+                p = products;
+            }
+        }
+        return p;
+    }
+
+    public UserDAO users() {
+        UserDAO u = users;
+        if (u == null) {
+            synchronized (this) {
+                if (users == null) users = new UserDAO();
+                u = users;
+            }
+        }
+        return u;
+    }
+
+    public OrderDAO orders() {
+        OrderDAO o = orders;
+        if (o == null) {
+            synchronized (this) {
+                if (orders == null) orders = new OrderDAO();
+                o = orders;
+            }
+        }
+        return o;
+    }
+
+    // True once every store has been opened
+    public boolean isLoaded() {
+        return products != null && users != null && orders != null;
+    }
+
+    // Open all stores on a background thread (e.g. while the front page is showing)
+    public void preload() {
+        Thread.ofVirtual().name("repositories-preload").start(() -> {
+            try {
+                users();
+                products();
+                orders();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // ---------------- Change listeners ----------------
+
+    public void addProductListener(ChangeListener<Product> l) { products().addChangeListener(l); }
+    public void removeProductListener(ChangeListener<Product> l) { products().removeChangeListener(l); }
+
+    public void addOrderListener(ChangeListener<Order> l) { orders().addChangeListener(l); }
+    public void removeOrderListener(ChangeListener<Order> l) { orders().removeChangeListener(l); }
+
+    public void addUserListener(ChangeListener<User> l) { users().addChangeListener(l); }
+    public void removeUserListener(ChangeListener<User> l) { users().removeChangeListener(l); }
+}
@@ -1,65 +1,75 @@
 package dao;
 
 import model.User;
-import java.io.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class UserDAO {
     private final String FILE_PATH = "users.dat";
 
-    // Load users from file
-    public List<User> loadUsers() {
+    // Shared, resident copy of users.dat with an email index
+    private final UserDirectory directory = UserDirectory.open(FILE_PATH, UserDAO::defaultUsers);
+    private final List<ChangeListener<User>> listeners = new CopyOnWriteArrayList<>();
+
+    private static final LatencyHistogram LOGIN_TIME = Metrics.timer("dealmate_user_login_seconds", "UserDAO.login");
+    private static final LatencyHistogram REGISTER_TIME = Metrics.timer("dealmate_user_register_seconds", "UserDAO.register, including the file write");
+    private static final Metrics.Counter LOGIN_FAILURES = Metrics.counter("dealmate_user_login_failures_total", "Logins with an unknown email or a wrong password");
+    private static final Metrics.Counter REGISTER_REJECTED = Metrics.counter("dealmate_user_register_rejected_total", "Registrations refused (email taken or write failed)");
+
+    public UserDAO() {
+        Metrics.gauge("dealmate_users", "Registered users", directory::size);
+    }
+
+    // first run → create default seller and buyer
+    private static List<User> defaultUsers() {
         List<User> users = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(FILE_PATH))) {
-            users = (List<User>) ois.readObject();
-        } catch (FileNotFoundException e) {
-            // first run → create default seller and buyer
-            User seller = new User("Seller", "seller@deal.com", "1234", "seller");
-            seller.setId(1);
-            User buyer = new User("Buyer", "buyer@deal.com", "1234", "buyer");
-            buyer.setId(2);
-            users.add(seller);
-            users.add(buyer);
-            saveUsers(users);
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
-        }
+        User seller = new User("Seller", "seller@deal.com", "1234", "seller");
+        seller.setId(1);
+        User buyer = new User("Buyer", "buyer@deal.com", "1234", "buyer");
+        buyer.setId(2);
+        users.add(seller);
+        users.add(buyer);
         return users;
     }
 
-    // Save users to file
-    public void saveUsers(List<User> users) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_PATH))) {
-            oos.writeObject(users);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    // Load users (served from memory; the file is only re-read when it changes)
+    public List<User> loadUsers() {
+        return directory.getAll();
+    }
+
+    // Save users to file; false if the file could not be written
+    public boolean saveUsers(List<User> users) {
+        return directory.replaceAll(users);
     }
 
-    // Register a user
+    // Register a user; safe to call from many threads at once
     public boolean register(User user) {
-        List<User> users = loadUsers();
-        // Check if email already exists
-        for (User u : users) {
-            if (u.getEmail().equalsIgnoreCase(user.getEmail())) {
-                return false;
-            }
-        }
-        user.setId(users.size() + 1); // simple auto-increment id
         user.setRole("buyer"); // default role
-        users.add(user);
-        saveUsers(users);
+        long start = System.nanoTime();
+        // Email check, id allocation and the file write all happen inside the directory
+        boolean added = directory.register(user);
+        REGISTER_TIME.recordSince(start);
+        if (!added) {
+            REGISTER_REJECTED.inc();
+            return false;
+        }
+        for (ChangeListener<User> l : listeners) l.added(UserDirectory.copyOf(user));
         return true;
     }
 
-    // Login
+    public void addChangeListener(ChangeListener<User> l) { listeners.add(l); }
+    public void removeChangeListener(ChangeListener<User> l) { listeners.remove(l); }
+
+    // Login: O(1) email lookup, no file I/O for repeated attempts
     public User login(String email, String password) {
-        List<User> users = loadUsers();
-        for (User u : users) {
-            if (u.getEmail().equalsIgnoreCase(email) && u.getPassword().equals(password)) {
-                return u; // role is now set
-            }
+        long start = System.nanoTime();
+        User u = directory.findByEmail(email);
+        User result = null;
+        if (u != null && u.getPassword() != null && u.getPassword().equals(password)) {
+            result = UserDirectory.copyOf(u); // a copy: callers set role/id on it
         }
-        return null;
+        LOGIN_TIME.recordSince(start);
+        if (result == null) LOGIN_FAILURES.inc();
+        return result;
     }
 }
@@ -0,0 +1,270 @@
+package dao;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import model.User;
+
+/**
+ * Resident copy of a users file with a case-folded email index.
+ *
+ * The file is read once; lookups are a hash probe. Changes made by another
+ * process are picked up by comparing the file's size and modification time,
+ * checked at most every CHECK_INTERVAL_MS, so a burst of logins causes no
+ * file I/O at all. Saves made through the directory refresh the stamp and do
+ * not trigger a reload.
+ *
+ * Registration is safe from many threads:
+ * - a taken email is turned away by a lock-free lookup
+ * - the insert and the version bump happen under the commit lock, so a
+ *   reload can't replace the directory between them; reloads are also
+ *   skipped while registrations are waiting for their commit
+ * - ids come from an atomic sequence seeded with the highest id on file
+ * - commits are serialized on the same lock; a commit writes every
+ *   registration made so far, so threads that queue behind it usually find
+ *   their user already on disk and return without writing again
+ * - a registration whose commit fails is taken out again and reported as failed
+ *
+ * A users file that can't be read leaves the previous image in place and is
+ * never overwritten from an empty directory.
+ */
+public class UserDirectory {
+
+    private static final long CHECK_INTERVAL_MS = 1000;
+
+    private static final LatencyHistogram LOAD_TIME = Metrics.timer("dealmate_user_file_load_seconds", "Reading the users file");
+    private static final LatencyHistogram WRITE_TIME = Metrics.timer("dealmate_user_file_write_seconds", "Rewriting the users file");
+    private static final Metrics.Counter ERRORS = Metrics.counter("dealmate_user_errors_total", "Users file reads/writes that failed");
+
+    // One directory per file, shared by every UserDAO
+    private static final Map<String, UserDirectory> OPEN = new HashMap<>();
+
+    private final File file;
+    private final Supplier<List<User>> firstRunUsers;
+
+    private final Object listLock = new Object();
+    private List<User> users = new ArrayList<>();            // guarded by listLock
+    private volatile ConcurrentHashMap<String, User> byEmail = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();     // bumped after every change
+    private long persisted;                                  // version on disk; guarded by commitLock
+    private long stampModified = -1, stampSize = -1;         // guarded by commitLock
+    private int uncommitted;                                 // registrations not yet written; guarded by commitLock
+    private boolean loaded;                                  // the file has been read (or seeded); guarded by commitLock
+    private volatile long lastCheck;
+
+    public static synchronized UserDirectory open(String path, Supplier<List<User>> firstRunUsers) {
+        String key = new File(path).getAbsolutePath();
+        return OPEN.computeIfAbsent(key, k -> new UserDirectory(new File(k), firstRunUsers));
+    }
+
+    private UserDirectory(File file, Supplier<List<User>> firstRunUsers) {
+        this.file = file;
+        this.firstRunUsers = firstRunUsers;
+        commitLock.lock();
+        try {
+            reload();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public static String emailKey(String email) {
+        return email == null ? "" : email.toLowerCase(Locale.ROOT);
+    }
+
+    public static User copyOf(User u) {
+        return new User(u.getId(), u.getName(), u.getEmail(), u.getPassword(), u.getRole());
+    }
+
+    public User findByEmail(String email) {
+        refreshIfChanged();
+        return byEmail.get(emailKey(email));
+    }
+
+    // Copies, so callers can't change the cached users behind the directory's back
+    public List<User> getAll() {
+        refreshIfChanged();
+        synchronized (listLock) {
+            List<User> copy = new ArrayList<>(users.size());
+            for (User u : users) copy.add(copyOf(u));
+            return copy;
+        }
+    }
+
+    public int size() {
+        synchronized (listLock) {
+            return users.size();
+        }
+    }
+
+    /**
+     * Registers the user with the next id and makes it durable before returning.
+     * Returns false if the email is already taken or the user could not be saved.
+     */
+    public boolean register(User user) {
+        refreshIfChanged();
+        String key = emailKey(user.getEmail());
+        if (byEmail.containsKey(key)) return false;
+
+        User stored = copyOf(user);
+        long mine;
+        commitLock.lock();
+        try {
+            if (byEmail.containsKey(key)) return false;
+            stored.setId(lastId.incrementAndGet());
+            byEmail.put(key, stored);
+            synchronized (listLock) {
+                users.add(stored);
+            }
+            mine = version.incrementAndGet();
+            uncommitted++;
+        } finally {
+            commitLock.unlock();
+        }
+
+        commitLock.lock();
+        try {
+            uncommitted--;
+            if (!commit(mine)) {
+                // Not on disk: take it back out (its id stays unused)
+                byEmail.remove(key, stored);
+                synchronized (listLock) {
+                    users.removeIf(u -> u == stored);
+                }
+                return false;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+        user.setId(stored.getId());
+        return true;
+    }
+
+    // Returns false (and keeps the previous users) if the file could not be written
+    public boolean replaceAll(List<User> list) {
+        commitLock.lock();
+        try {
+            List<User> previous;
+            synchronized (listLock) {
+                previous = users;
+            }
+            List<User> copy = new ArrayList<>(list.size());
+            for (User u : list) copy.add(copyOf(u));
+            install(copy);
+            if (commit(version.incrementAndGet())) return true;
+            install(previous);
+            return false;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // ---------------- Commit ----------------
+
+    // Caller holds commitLock
+    private boolean commit(long mine) {
+        if (persisted >= mine) return true; // an earlier commit already wrote it
+        if (!loaded) {
+            System.err.println(file + " could not be read; not overwriting it");
+            return false;
+        }
+        long v = version.get();
+        List<User> image;
+        synchronized (listLock) {
+            image = new ArrayList<>(users);
+        }
+        if (!write(image)) return false;
+        persisted = v;
+        return true;
+    }
+
+    // ---------------- File ----------------
+
+    private void refreshIfChanged() {
+        long now = System.currentTimeMillis();
+        if (now - lastCheck < CHECK_INTERVAL_MS) return;
+        if (!commitLock.tryLock()) return; // a commit is running; it knows the file best
+        try {
+            lastCheck = now;
+            if (uncommitted > 0) return; // the file is about to be rewritten with them anyway
+            if (file.lastModified() != stampModified || file.length() != stampSize) reload();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Caller holds commitLock. On a read error (I/O or a damaged file) the current image stays
+    // and the stamp is left alone, so it is retried
+    private void reload() {
+        lastCheck = System.currentTimeMillis();
+        if (!file.exists()) {
+            // first run → seed default accounts
+            install(new ArrayList<>(firstRunUsers.get()));
+            loaded = true;
+            if (write(new ArrayList<>(users))) persisted = version.get();
+            return;
+        }
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("users", "load", file.getName());
+        try {
+            DataMigrator.migrateIfLegacy(file.toPath()); // serialized users.dat → codec, once
+            List<User> loaded = BinaryCodec.readUsers(file.toPath());
+            install(loaded);
+            this.loaded = true;
+            persisted = version.get();
+            LOAD_TIME.recordSince(start);
+            event.finish(loaded.size(), file.length());
+        } catch (IOException | RuntimeException e) {
+            ERRORS.inc();
+            event.fail();
+            e.printStackTrace();
+            return;
+        }
+        stamp();
+    }
+
+    // Caller holds commitLock
+    private void install(List<User> list) {
+        ConcurrentHashMap<String, User> map = new ConcurrentHashMap<>(list.size() * 2);
+        int max = 0;
+        for (User u : list) {
+            if (u.getEmail() != null) map.putIfAbsent(emailKey(u.getEmail()), u);
+            max = Math.max(max, u.getId());
+        }
+        synchronized (listLock) {
+            users = list;
+        }
+        byEmail = map;
+        lastId.accumulateAndGet(max, Math::max);
+    }
+
+    // Caller holds commitLock. BinaryCodec writes a temp file and renames it, so readers never see half a file
+    private boolean write(List<User> image) {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("users", "save", file.getName());
+        try {
+            BinaryCodec.writeUsers(file.toPath(), image);
+            WRITE_TIME.recordSince(start);
+            event.finish(image.size(), file.length());
+        } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
+            e.printStackTrace();
+            return false;
+        }
+        stamp();
+        return true;
+    }
+
+    private void stamp() {
+        stampModified = file.lastModified();
+        stampSize = file.length();
+    }
+}
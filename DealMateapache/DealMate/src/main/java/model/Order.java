@@ -7,6 +7,7 @@ public class Order {
     private int id;
     private User user;
     private List<OrderItem> items;
+    private long createdAt; // epoch millis, 0 if unknown (orders saved before timestamps)
 public void setItems(List<OrderItem> items) {
     this.items = items;
 }
@@ -27,6 +28,9 @@ public void setItems(List<OrderItem> items) {
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
     public List<OrderItem> getItems() { return items; }
     public void addItem(OrderItem item) { items.add(item); }
 }
@@ -0,0 +1,405 @@
+package tools;
+
+import dao.LatencyHistogram;
+import dao.Metrics;
+import dao.OrderDAO;
+import dao.ProductDAO;
+import dao.Repositories;
+import dao.UserDAO;
+import model.Order;
+import model.OrderItem;
+import model.Product;
+import model.User;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Headless soak test: simulated buyers and sellers drive the DAO layer the
+ * way the frames do, without Swing.
+ *
+ * Every simulated user is a virtual thread that registers its own account
+ * and then loops over a weighted mix of operations:
+ *   buyers:  register, login, search, cart (add to cart), checkout
+ *   sellers: login, search, list (add product), delist (remove own product)
+ *
+ * With --rate the whole population is paced to that many ops per second and
+ * latency is taken from each operation's scheduled start, so a store that
+ * stalls shows up as queueing delay instead of being hidden by the pause.
+ * Without it each user runs closed-loop, as fast as the stores allow.
+ *
+ * Prints throughput and p99 every --report seconds, then per-operation
+ * counts, failures, p50/p99/p999/max and how much each data file grew.
+ * --metrics=json|prometheus adds the stores' own metrics (see dao.Metrics).
+ *
+ * The stores write to the working directory, so run it from a scratch
+ * directory (optionally holding a copy of real data files):
+ *
+ *   java -cp target/classes tools.LoadGenerator --buyers=200 --sellers=20 --seconds=120 --rate=2000
+ *   java -cp target/classes tools.LoadGenerator --buyer-mix=login:1,search:8,cart:6,checkout:3
+ */
+public final class LoadGenerator {
+
+    enum Op {
+        REGISTER("register"), LOGIN("login"), SEARCH("search"), CART("cart"),
+        CHECKOUT("checkout"), LIST("list"), DELIST("delist");
+
+        final String key;
+
+        Op(String key) { this.key = key; }
+
+        static Op of(String key) {
+            for (Op op : values()) if (op.key.equals(key)) return op;
+            throw new IllegalArgumentException("Unknown operation: " + key);
+        }
+    }
+
+    // Files the stores write; data/ is walked for the order journal and snapshots
+    private static final String[] DATA_FILES = {
+            "products.csv", "products.delta.csv", "products.delta.old.csv", "users.dat"};
+
+    private static final String[] WORDS = {
+            "phone", "laptop", "kettle", "watch", "camera", "speaker", "lamp", "mug", "jacket",
+            "charger", "tablet", "router", "mouse", "monitor", "sneakers", "backpack"};
+    private static final String[] BRANDS = {"Acme", "Nova", "Zen", "Orbit", "Pixel", "Lumen", "Koto", "Halo"};
+
+    // ---------------- Configuration ----------------
+
+    private int buyers = 50;
+    private int sellers = 5;
+    private int seconds = 60;
+    private double rate;            // total ops/s; 0 = closed loop
+    private int reportSeconds = 5;
+    private int seedProducts = 1000;
+    private String metricsFormat = "";  // "json" or "prometheus": dump the store metrics at the end
+    private final EnumMap<Op, Integer> buyerMix = mix("register:2,login:8,search:45,cart:30,checkout:15");
+    private final EnumMap<Op, Integer> sellerMix = mix("login:10,search:30,list:50,delist:10");
+
+    // ---------------- Run state ----------------
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicInteger accounts = new AtomicInteger();
+    private final EnumMap<Op, LatencyHistogram> latency = new EnumMap<>(Op.class);
+    private final EnumMap<Op, AtomicLong> failures = new EnumMap<>(Op.class);
+    private final AtomicReference<LatencyHistogram> window = new AtomicReference<>(new LatencyHistogram());
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean running = true;
+
+    private ProductDAO productDAO;
+    private UserDAO userDAO;
+    private OrderDAO orderDAO;
+
+    private LoadGenerator() {
+        for (Op op : Op.values()) {
+            latency.put(op, new LatencyHistogram());
+            failures.put(op, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator gen = new LoadGenerator();
+        try {
+            gen.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Options: --buyers=N --sellers=N --seconds=N --rate=OPS_PER_SEC --report=SECONDS"
+                    + " --seed-products=N --metrics=json|prometheus --buyer-mix=op:weight,... --seller-mix=op:weight,...");
+            System.exit(2);
+        }
+        File cwd = new File("").getAbsoluteFile();
+        if (new File(cwd, "pom.xml").exists() || new File(cwd, "src").exists()) {
+            System.err.println("Run the load generator from a scratch directory, not " + cwd);
+            System.exit(2);
+        }
+        gen.run();
+        System.exit(0);
+    }
+
+    private void parse(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) throw new IllegalArgumentException("Bad option: " + arg);
+            String name = arg.substring(2, eq), value = arg.substring(eq + 1);
+            switch (name) {
+                case "buyers": buyers = Integer.parseInt(value); break;
+                case "sellers": sellers = Integer.parseInt(value); break;
+                case "seconds": seconds = Integer.parseInt(value); break;
+                case "rate": rate = Double.parseDouble(value); break;
+                case "report": reportSeconds = Math.max(1, Integer.parseInt(value)); break;
+                case "seed-products": seedProducts = Integer.parseInt(value); break;
+                case "metrics": metricsFormat = value; break;
+                case "buyer-mix": buyerMix.clear(); buyerMix.putAll(mix(value)); break;
+                case "seller-mix": sellerMix.clear(); sellerMix.putAll(mix(value)); break;
+                default: throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (buyers + sellers <= 0) throw new IllegalArgumentException("Need at least one buyer or seller");
+    }
+
+    // "search:40,cart:20" -> weights; zero weights are dropped
+    private static EnumMap<Op, Integer> mix(String spec) {
+        EnumMap<Op, Integer> m = new EnumMap<>(Op.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad mix entry: " + part);
+            int w = Integer.parseInt(kv[1].trim());
+            if (w > 0) m.put(Op.of(kv[0].trim()), w);
+        }
+        if (m.isEmpty()) throw new IllegalArgumentException("Empty mix: " + spec);
+        return m;
+    }
+
+    // ---------------- Run ----------------
+
+    private void run() throws InterruptedException {
+        long openStart = System.nanoTime();
+        Repositories repos = Repositories.get();
+        userDAO = repos.users();
+        productDAO = repos.products();
+        orderDAO = repos.orders();
+        System.out.printf("Stores opened in %d ms: %d products, %d users, %d orders%n",
+                (System.nanoTime() - openStart) / 1_000_000, productDAO.size(),
+                userDAO.loadUsers().size(), orderDAO.getAllOrders().size());
+
+        // Searches and carts need something to find
+        int missing = seedProducts - productDAO.size();
+        for (int i = 0; i < missing; i++) productDAO.addProduct(randomProduct(0));
+        productDAO.flush();
+        if (missing > 0) System.out.println("Seeded " + missing + " products");
+
+        Map<String, Long> filesBefore = fileSizes();
+        int agents = buyers + sellers;
+        long intervalNanos = rate > 0 ? (long) (agents * 1e9 / rate) : 0;
+        System.out.printf("Running %d buyers + %d sellers for %d s, %s%n", buyers, sellers, seconds,
+                rate > 0 ? String.format("paced at %.0f ops/s", rate) : "closed loop");
+
+        long start = System.nanoTime();
+        try (ExecutorService users = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("soak-", 0).factory())) {
+            for (int i = 0; i < agents; i++) {
+                boolean seller = i < sellers;
+                // Spread the first operations over one interval instead of starting in lockstep
+                long firstAt = start + (intervalNanos > 0 ? intervalNanos * i / agents : 0);
+                users.execute(() -> agent(seller, firstAt, intervalNanos));
+            }
+
+            long end = start + seconds * 1_000_000_000L;
+            long lastOps = 0;
+            while (System.nanoTime() < end) {
+                Thread.sleep(Math.min(reportSeconds * 1000L, Math.max(1, (end - System.nanoTime()) / 1_000_000)));
+                LatencyHistogram w = window.getAndSet(new LatencyHistogram());
+                long ops = totalOps();
+                System.out.printf("%6.1f s  %8.0f ops/s  p99 %s  errors %d%n",
+                        (System.nanoTime() - start) / 1e9, (ops - lastOps) / (double) reportSeconds,
+                        millis(w.percentile(0.99)), errors.get());
+                lastOps = ops;
+            }
+            running = false;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Everything the run wrote, on disk before the files are measured
+        productDAO.flush();
+        orderDAO.flush();
+        report(elapsed, filesBefore, fileSizes());
+        if ("json".equals(metricsFormat)) System.out.println(Metrics.toJson());
+        else if ("prometheus".equals(metricsFormat)) System.out.print(Metrics.toPrometheus());
+    }
+
+    // One simulated user
+    private void agent(boolean seller, long firstAt, long intervalNanos) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        EnumMap<Op, Integer> mix = seller ? sellerMix : buyerMix;
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        Session s = new Session();
+        s.user = newAccount();
+        if (!userDAO.register(s.user)) s.user = null;
+
+        long scheduled = firstAt;
+        while (running) {
+            if (intervalNanos > 0) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                if (!running) break;
+            }
+            long begin = intervalNanos > 0 ? scheduled : System.nanoTime();
+
+            Op op = pick(mix, totalWeight, rnd);
+            boolean ok;
+            try {
+                ok = perform(op, s, rnd);
+            } catch (RuntimeException e) {
+                ok = false;
+                if (errors.incrementAndGet() <= 5) e.printStackTrace();
+            }
+            long took = System.nanoTime() - begin;
+            latency.get(op).record(took);
+            window.get().record(took);
+            if (!ok) failures.get(op).incrementAndGet();
+
+            scheduled += intervalNanos;
+            // Virtual threads are not preempted: closed-loop users whose ops never block would
+            // otherwise keep the carriers and starve the rest (all of them, on a single core)
+            if (intervalNanos == 0) Thread.yield();
+        }
+    }
+
+    private static final class Session {
+        User user;
+        final Map<Integer, OrderItem> cart = new LinkedHashMap<>(); // product id -> line, as the UI cart merges them
+        List<Product> lastResults = List.of();
+        final List<Integer> listed = new ArrayList<>();
+    }
+
+    private boolean perform(Op op, Session s, ThreadLocalRandom rnd) {
+        switch (op) {
+            case REGISTER:
+                return userDAO.register(newAccount());
+            case LOGIN:
+                return s.user != null && userDAO.login(s.user.getEmail(), s.user.getPassword()) != null;
+            case SEARCH:
+                s.lastResults = productDAO.searchProducts(WORDS[rnd.nextInt(WORDS.length)], 50);
+                return true;
+            case CART:
+                return addToCart(s, rnd);
+            case CHECKOUT:
+                if (s.cart.isEmpty() && !addToCart(s, rnd)) return false;
+                Order o = new Order();
+                o.setUser(s.user);
+                o.setCreatedAt(System.currentTimeMillis());
+                o.setItems(new ArrayList<>(s.cart.values()));
+                s.cart.clear();
+                return orderDAO.placeOrder(o);
+            case LIST:
+                Product p = randomProduct(s.user != null ? s.user.getId() : 0);
+                productDAO.addProduct(p);
+                s.listed.add(p.getId());
+                return true;
+            case DELIST:
+                if (s.listed.isEmpty()) return false;
+                productDAO.deleteProduct(s.listed.remove(s.listed.size() - 1));
+                return true;
+            default:
+                throw new IllegalStateException(op.name());
+        }
+    }
+
+    // From the last search when there is one, otherwise a random live product
+    private boolean addToCart(Session s, ThreadLocalRandom rnd) {
+        Product p = null;
+        if (!s.lastResults.isEmpty()) {
+            p = s.lastResults.get(rnd.nextInt(s.lastResults.size()));
+        } else {
+            int maxId = productDAO.peekNextId();
+            for (int tries = 0; p == null && tries < 8 && maxId > 1; tries++) p = productDAO.getProduct(1 + rnd.nextInt(maxId - 1));
+        }
+        if (p == null) return false;
+        int qty = 1 + rnd.nextInt(3);
+        OrderItem line = s.cart.get(p.getId());
+        if (line != null) line.setQuantity(line.getQuantity() + qty);
+        else s.cart.put(p.getId(), new OrderItem(p, qty));
+        return true;
+    }
+
+    private static Op pick(EnumMap<Op, Integer> mix, int totalWeight, ThreadLocalRandom rnd) {
+        int r = rnd.nextInt(totalWeight);
+        for (Map.Entry<Op, Integer> e : mix.entrySet()) {
+            r -= e.getValue();
+            if (r < 0) return e.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    private User newAccount() {
+        int n = accounts.incrementAndGet();
+        return new User("Soak " + n, "soak-" + runId + "-" + n + "@load.dealmate", "pw" + n, "buyer");
+    }
+
+    private static Product randomProduct(int sellerId) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String name = BRANDS[rnd.nextInt(BRANDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)] + " " + rnd.nextInt(1, 100);
+        return new Product(0, name, Math.round(rnd.nextDouble(1, 5000) * 100) / 100.0, sellerId);
+    }
+
+    // ---------------- Report ----------------
+
+    private long totalOps() {
+        long n = 0;
+        for (LatencyHistogram h : latency.values()) n += h.count();
+        return n;
+    }
+
+    private void report(long elapsedNanos, Map<String, Long> before, Map<String, Long> after) {
+        double secs = elapsedNanos / 1e9;
+        LatencyHistogram all = new LatencyHistogram();
+
+        System.out.println();
+        System.out.printf("%-10s %10s %9s %10s %10s %10s %10s %10s%n",
+                "op", "count", "failed", "ops/s", "p50", "p99", "p999", "max");
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latency.get(op);
+            if (h.count() == 0) continue;
+            all.add(h);
+            printRow(op.key, h, failures.get(op).get(), secs);
+        }
+        long failed = failures.values().stream().mapToLong(AtomicLong::get).sum();
+        printRow("total", all, failed, secs);
+        if (errors.get() > 0) System.out.println("Exceptions: " + errors.get());
+
+        System.out.println();
+        System.out.printf("%-28s %14s %14s %14s%n", "file", "before", "after", "growth");
+        long grown = 0;
+        Set<String> files = new TreeSet<>(before.keySet());
+        files.addAll(after.keySet()); // rotation and snapshots remove files too
+        for (String f : files) {
+            long b = before.getOrDefault(f, 0L), a = after.getOrDefault(f, 0L);
+            grown += a - b;
+            System.out.printf("%-28s %14d %14d %+14d%n", f, b, a, a - b);
+        }
+        long checkouts = latency.get(Op.CHECKOUT).count();
+        System.out.printf("Data grew %d bytes (%.0f bytes/s", grown, grown / secs);
+        if (checkouts > 0) System.out.printf(", %.0f bytes per checkout", grown / (double) checkouts);
+        System.out.println(")");
+        System.out.printf("Now holding %d products, %d users, %d orders%n",
+                productDAO.size(), userDAO.loadUsers().size(), orderDAO.getAllOrders().size());
+    }
+
+    private static void printRow(String name, LatencyHistogram h, long failed, double secs) {
+        System.out.printf("%-10s %10d %9d %10.0f %10s %10s %10s %10s%n", name, h.count(), failed, h.count() / secs,
+                millis(h.percentile(0.50)), millis(h.percentile(0.99)), millis(h.percentile(0.999)), millis(h.max()));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1e6);
+    }
+
+    // Sizes of the store files that exist, plus everything under data/
+    private static Map<String, Long> fileSizes() {
+        Map<String, Long> sizes = new TreeMap<>();
+        for (String f : DATA_FILES) {
+            File file = new File(f);
+            if (file.exists()) sizes.put(f, file.length());
+        }
+        Path data = Paths.get("data");
+        if (Files.isDirectory(data)) {
+            try (Stream<Path> walk = Files.walk(data)) {
+                walk.filter(Files::isRegularFile).forEach(p -> sizes.put(p.toString(), p.toFile().length()));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return sizes;
+    }
+}
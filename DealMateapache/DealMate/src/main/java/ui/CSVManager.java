@@ -1,159 +1,462 @@
-
 package ui;
 
+import dao.IntObjectMap;
+import dao.LatencyHistogram;
+import dao.Metrics;
+import dao.PersistenceEvent;
+import dao.ProductCatalog;
 import model.Product;
 import model.Order;
 import model.OrderItem;
 import model.User;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * CSV import/export. Files are read through CsvTokenizer (memory-mapped,
+ * RFC 4180 quoting) and written as UTF-8 with text fields quoted when needed.
+ *
+ * Products are stored as a base file (products.csv) plus a delta log
+ * (products.delta.csv) of "+" upsert and "-" tombstone rows. Single changes
+ * are appended to the delta; compaction folds it into a new base that is
+ * written to a temp file and renamed into place. The base header ends with
+ * the id high-water mark (nextId=N) and tombstones count towards it too,
+ * so the id of a deleted product is not handed out again after a restart.
+ */
 public class CSVManager {
-private static final String USER_FILE = "users.csv";
-
+    private static final String USER_FILE = "users.csv";
     private static final String PRODUCT_FILE = "products.csv";
+    private static final String PRODUCT_DELTA_FILE = "products.delta.csv";
+    private static final String PRODUCT_DELTA_ROTATED = "products.delta.old.csv";
     private static final String ORDER_FILE = "orders.csv";
-    
-    // Save all users
-public static void saveUsers(List<User> users) {
-    try (PrintWriter pw = new PrintWriter(new FileWriter(USER_FILE))) {
-        pw.println("id,name,role");
-        for (User u : users) {
-            pw.println(u.getId() + "," + u.getName() + "," + u.getRole());
+
+    private static final LatencyHistogram USERS_LOAD = Metrics.timer("dealmate_csv_users_load_seconds", "CSVManager.loadUsers");
+    private static final LatencyHistogram USERS_SAVE = Metrics.timer("dealmate_csv_users_save_seconds", "CSVManager.saveUsers");
+    private static final LatencyHistogram PRODUCTS_LOAD = Metrics.timer("dealmate_csv_products_load_seconds", "Loading products.csv plus its delta files");
+    private static final LatencyHistogram PRODUCTS_SAVE = Metrics.timer("dealmate_csv_products_save_seconds", "Rewriting products.csv (saves and compactions)");
+    private static final LatencyHistogram DELTA_APPEND = Metrics.timer("dealmate_csv_delta_append_seconds", "Appending a batch to products.delta.csv, fsync included");
+    private static final LatencyHistogram ORDERS_LOAD = Metrics.timer("dealmate_csv_orders_load_seconds", "CSVManager.loadOrders");
+    private static final LatencyHistogram ORDERS_SAVE = Metrics.timer("dealmate_csv_orders_save_seconds", "CSVManager.saveOrders");
+    private static final Metrics.Counter ROWS_READ = Metrics.counter("dealmate_csv_rows_read_total", "CSV data rows read");
+    private static final Metrics.Counter ROWS_MALFORMED = Metrics.counter("dealmate_csv_rows_malformed_total", "CSV rows skipped as malformed");
+    private static final Metrics.Counter BYTES_READ = Metrics.counter("dealmate_csv_bytes_read_total", "Bytes of CSV files read");
+    private static final Metrics.Counter BYTES_WRITTEN = Metrics.counter("dealmate_csv_bytes_written_total", "Bytes of CSV appended or rewritten (products)");
+    private static final Metrics.Counter ERRORS = Metrics.counter("dealmate_csv_errors_total", "CSV reads/writes that failed");
+
+    // --------- USERS ---------
+    public static void saveUsers(List<User> users) {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("csv", "save", USER_FILE);
+        try (PrintWriter pw = writer(USER_FILE)) {
+            pw.println("id,name,role");
+            for (User u : users) {
+                pw.println(u.getId() + "," + field(u.getName()) + "," + field(u.getRole()));
+            }
+        } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
+            e.printStackTrace();
+            return;
         }
-    } catch (IOException e) {
-        e.printStackTrace();
+        USERS_SAVE.recordSince(start);
+        event.finish(users.size(), length(USER_FILE));
     }
-}
 
-// Load all users
-public static List<User> loadUsers() {
-    List<User> users = new ArrayList<>();
-    File file = new File(USER_FILE);
-    if (!file.exists()) return users;
-    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-        String line = br.readLine(); // skip header
-        while ((line = br.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length < 3) continue;
-            User u = new User();
-            u.setId(Integer.parseInt(parts[0]));
-            u.setName(parts[1]);
-            u.setRole(parts[2]);
-            users.add(u);
+    public static List<User> loadUsers() {
+        List<User> users = new ArrayList<>();
+        File file = new File(USER_FILE);
+        if (!file.exists()) return users;
+
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("csv", "load", USER_FILE);
+        int malformed = 0;
+        try (CsvTokenizer csv = CsvTokenizer.open(file.toPath())) {
+            csv.nextRecord(); // skip header
+            while (csv.nextRecord()) {
+                try {
+                    User u = new User();
+                    u.setId(csv.nextInt());
+                    u.setName(csv.nextString());
+                    u.setRole(csv.nextString());
+                    users.add(u);
+                } catch (NumberFormatException e) {
+                    malformed++;
+                }
+            }
+        } catch (IOException e) {
+            ERRORS.inc();
+            e.printStackTrace();
         }
-    } catch (IOException e) {
-        e.printStackTrace();
+        if (malformed > 0) System.err.println(USER_FILE + ": skipped " + malformed + " malformed rows");
+        long bytes = countRead(file, users.size() + malformed, malformed);
+        USERS_LOAD.recordSince(start);
+        event.finish(users.size(), bytes);
+        return users;
     }
-    return users;
-}
-
 
     // --------- PRODUCTS ---------
+
+    private static final String NEXT_ID = "nextId=";
+
+    // Full rewrite of the base file, with the next id derived from the products
     public static void saveProducts(List<Product> products) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(PRODUCT_FILE))) {
-         pw.println("id,name,price,sellerId");
+        int next = 1;
+        for (Product p : products) next = Math.max(next, p.getId() + 1);
+        saveProducts(products, next);
+    }
+
+    // Full rewrite of the base file; goes through a temp file so a crash never truncates it
+    public static void saveProducts(List<Product> products, int nextId) {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("csv", "save", PRODUCT_FILE);
+        long bytes;
+        Path target = Paths.get(PRODUCT_FILE).toAbsolutePath();
+        Path tmp = target.resolveSibling(PRODUCT_FILE + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            PrintWriter pw = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(Channels.newOutputStream(ch), StandardCharsets.UTF_8), 64 * 1024));
+            pw.println("id,name,price,sellerId," + NEXT_ID + nextId);
             for (Product p : products) {
-                pw.println(p.getId() + "," + p.getName() + "," + p.getPrice() + "," + p.getSellerId());
+                pw.println(p.getId() + "," + field(p.getName()) + "," + p.getPrice() + "," + p.getSellerId());
             }
+            pw.flush();
+            if (pw.checkError()) throw new IOException("write failed: " + tmp);
+            ch.force(true);
+            bytes = ch.size();
+            BYTES_WRITTEN.add(bytes);
         } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
             e.printStackTrace();
+            return;
         }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
+            e.printStackTrace();
+            return;
+        }
+        PRODUCTS_SAVE.recordSince(start);
+        event.finish(products.size(), bytes);
     }
 
-   public static List<Product> loadProducts() {
-    List<Product> products = new ArrayList<>();
-    File file = new File(PRODUCT_FILE);
-    if (!file.exists()) return products;
-
-    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-        String line = br.readLine(); // skip header
-        while ((line = br.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length < 4) continue; // now 4 columns: id,name,price,sellerId
-            Product p = new Product();
-            p.setId(Integer.parseInt(parts[0]));
-            p.setName(parts[1]);
-            p.setPrice(Double.parseDouble(parts[2]));
-            p.setSellerId(Integer.parseInt(parts[3])); // important
-            products.add(p);
+    public static String productUpsertRow(Product p) {
+        return "+," + p.getId() + "," + field(p.getName()) + "," + p.getPrice() + "," + p.getSellerId();
+    }
+
+    public static String productTombstoneRow(int id) {
+        return "-," + id + ",,,";
+    }
+
+    // Append delta rows with a single write and fsync. On failure nothing is left behind and the caller keeps the rows.
+    public static void appendProductDelta(List<String> rows) throws IOException {
+        if (rows.isEmpty()) return;
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("csv", "append", PRODUCT_DELTA_FILE);
+        Path delta = Paths.get(PRODUCT_DELTA_FILE);
+        StringBuilder sb = new StringBuilder();
+        for (String row : rows) sb.append(row).append(System.lineSeparator());
+
+        int written;
+        try (FileChannel ch = FileChannel.open(delta, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // Decide on the header from the file actually opened: the compactor may have
+            // rotated the old delta away between any earlier check and this open
+            long before = ch.size();
+            if (before == 0) sb.insert(0, "op,id,name,price,sellerId" + System.lineSeparator());
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            try {
+                while (buf.hasRemaining()) ch.write(buf);
+                ch.force(false);
+            } catch (IOException e) {
+                // Drop a partial batch so the retry doesn't land after half a row
+                try {
+                    ch.truncate(before);
+                } catch (IOException ignored) { }
+                throw e;
+            }
+            written = buf.limit();
+            BYTES_WRITTEN.add(written);
+        } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
+            throw e;
+        }
+        DELTA_APPEND.recordSince(start);
+        event.finish(rows.size(), written);
+    }
+
+    public static boolean hasProductDelta() {
+        return Files.exists(Paths.get(PRODUCT_DELTA_FILE)) || Files.exists(Paths.get(PRODUCT_DELTA_ROTATED));
+    }
+
+    /**
+     * First half of a compaction: set the current delta aside so new changes
+     * start a fresh one. A rotated delta left behind by an interrupted
+     * compaction is kept as is; the caller's image already covers it.
+     */
+    public static void rotateProductDelta() {
+        Path rotated = Paths.get(PRODUCT_DELTA_ROTATED);
+        Path delta = Paths.get(PRODUCT_DELTA_FILE);
+        if (Files.exists(rotated) || !Files.exists(delta)) return;
+        try {
+            Files.move(delta, rotated, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            ERRORS.inc();
+            e.printStackTrace();
         }
-    } catch (IOException e) {
-        e.printStackTrace();
     }
-    return products;
-}
 
+    /**
+     * Second half: write the new base (it already contains everything in the
+     * rotated delta) and drop the rotated delta. Safe to interrupt at any point,
+     * since replaying a delta over a newer base is idempotent.
+     */
+    public static void compactProducts(List<Product> image, int nextId) {
+        saveProducts(image, nextId);
+        try {
+            Files.deleteIfExists(Paths.get(PRODUCT_DELTA_ROTATED));
+        } catch (IOException e) {
+            ERRORS.inc();
+            e.printStackTrace();
+        }
+    }
+
+    // Base file with the rotated and current delta applied on top, in id order
+    public static List<Product> loadProducts() {
+        return new ArrayList<>(loadProductCatalog().all());
+    }
+
+    public static ProductCatalog loadProductCatalog() {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("csv", "load", PRODUCT_FILE);
+        ProductCatalog catalog = new ProductCatalog();
+        loadProductBase(catalog);
+        applyProductDelta(PRODUCT_DELTA_ROTATED, catalog);
+        applyProductDelta(PRODUCT_DELTA_FILE, catalog);
+        PRODUCTS_LOAD.recordSince(start);
+        event.finish(catalog.size(), length(PRODUCT_FILE) + length(PRODUCT_DELTA_ROTATED) + length(PRODUCT_DELTA_FILE));
+        return catalog;
+    }
+
+    private static void loadProductBase(ProductCatalog catalog) {
+        File file = new File(PRODUCT_FILE);
+        if (!file.exists()) return;
+
+        int loaded = 0, malformed = 0;
+        try (CsvTokenizer csv = CsvTokenizer.open(file.toPath())) {
+            if (csv.nextRecord()) readNextId(csv, catalog);
+            while (csv.nextRecord()) {
+                try {
+                    // 4 columns: id,name,price,sellerId
+                    catalog.put(readProduct(csv));
+                    loaded++;
+                } catch (NumberFormatException e) {
+                    malformed++;
+                }
+            }
+        } catch (IOException e) {
+            ERRORS.inc();
+            e.printStackTrace();
+        }
+        if (malformed > 0) System.err.println(PRODUCT_FILE + ": skipped " + malformed + " malformed rows");
+        countRead(file, loaded + malformed, malformed);
+    }
+
+    // Header: id,name,price,sellerId[,nextId=N]; files written before the high-water mark have no fifth column
+    private static void readNextId(CsvTokenizer csv, ProductCatalog catalog) {
+        for (int i = 0; i < 4 && csv.hasField(); i++) csv.skipField();
+        if (!csv.hasField()) return;
+        String mark = csv.nextString();
+        if (mark == null || !mark.startsWith(NEXT_ID)) return;
+        try {
+            catalog.reserveIds(Integer.parseInt(mark.substring(NEXT_ID.length())));
+        } catch (NumberFormatException e) {
+            System.err.println(PRODUCT_FILE + ": ignoring bad header " + mark);
+        }
+    }
+
+    private static void applyProductDelta(String deltaFile, ProductCatalog catalog) {
+        File file = new File(deltaFile);
+        if (!file.exists()) return;
+
+        int rows = 0, malformed = 0;
+        try (CsvTokenizer csv = CsvTokenizer.open(file.toPath())) {
+            csv.nextRecord(); // skip header
+            while (csv.nextRecord()) {
+                rows++;
+                try {
+                    String op = csv.nextString();
+                    if ("+".equals(op)) {
+                        catalog.put(readProduct(csv));
+                    } else if ("-".equals(op)) {
+                        int id = csv.nextInt();
+                        catalog.reserveIds(id + 1); // a deleted id stays used
+                        catalog.remove(id);
+                    } else {
+                        malformed++;
+                    }
+                } catch (NumberFormatException e) {
+                    malformed++;
+                }
+            }
+        } catch (IOException e) {
+            ERRORS.inc();
+            e.printStackTrace();
+        }
+        if (malformed > 0) System.err.println(deltaFile + ": skipped " + malformed + " malformed rows");
+        countRead(file, rows, malformed);
+    }
+
+    private static Product readProduct(CsvTokenizer csv) {
+        Product p = new Product();
+        p.setId(csv.nextInt());
+        p.setName(csv.nextString());
+        p.setPrice(csv.nextDouble());
+        p.setSellerId(csv.nextInt());
+        return p;
+    }
 
     // --------- ORDERS ---------
     public static void saveOrders(List<Order> orders) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ORDER_FILE))) {
-            pw.println("orderId,userId,productId,quantity"); // header
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("csv", "save", ORDER_FILE);
+        int lines = 0;
+        try (PrintWriter pw = writer(ORDER_FILE)) {
+            pw.println("orderId,userId,productId,quantity,createdAt"); // header
             for (Order o : orders) {
                 for (OrderItem item : o.getItems()) {
                     pw.println(o.getId() + "," + o.getUser().getId() + "," +
-                            item.getProduct().getId() + "," + item.getQuantity());
+                            item.getProduct().getId() + "," + item.getQuantity() + "," + o.getCreatedAt());
+                    lines++;
                 }
             }
         } catch (IOException e) {
+            ERRORS.inc();
+            event.fail();
             e.printStackTrace();
+            return;
         }
+        ORDERS_SAVE.recordSince(start);
+        event.finish(lines, length(ORDER_FILE));
     }
 
     public static List<Order> loadOrders(List<Product> allProducts, List<User> allUsers) {
-    List<Order> orders = new ArrayList<>();
-    File file = new File(ORDER_FILE);
-    if (!file.exists()) return orders;
-
-    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-        String line = br.readLine(); // skip header
-        Order currentOrder = null;
-        int lastOrderId = -1;
-
-        while ((line = br.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length < 4) continue;
-
-            int orderId = Integer.parseInt(parts[0]);
-            int userId = Integer.parseInt(parts[1]);
-            int productId = Integer.parseInt(parts[2]);
-            int qty = Integer.parseInt(parts[3]);
-
-            // NEW ORDER
-            if (orderId != lastOrderId) {
-                User user = allUsers.stream()
-                        .filter(u -> u.getId() == userId)
-                        .findFirst()
-                        .orElse(null);
-
-                currentOrder = new Order();
-                currentOrder.setId(orderId);
-                currentOrder.setUser(user);
-                currentOrder.setItems(new ArrayList<>()); // IMPORTANT
-                orders.add(currentOrder);
-
-                lastOrderId = orderId;
-            }
+        return loadOrders(new ProductCatalog(allProducts), allUsers);
+    }
+
+    public static List<Order> loadOrders(ProductCatalog catalog, List<User> allUsers) {
+        OrderLoadReport report = new OrderLoadReport();
+        List<Order> orders = loadOrders(catalog, allUsers, report);
+        if (!report.isClean()) System.err.println(report);
+        return orders;
+    }
 
-            Product product = allProducts.stream()
-                    .filter(p -> p.getId() == productId)
-                    .findFirst()
-                    .orElse(null);
+    /**
+     * Hash join: users are indexed by id once, products come from the catalog's
+     * id index, and the order file is read in a single pass. Lines of the same
+     * order do not need to be adjacent. Anything that cannot be resolved is
+     * collected in the report.
+     */
+    public static List<Order> loadOrders(ProductCatalog catalog, List<User> allUsers, OrderLoadReport report) {
+        List<Order> orders = new ArrayList<>();
+        File file = new File(ORDER_FILE);
+        if (!file.exists()) return orders;
+
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("csv", "load", ORDER_FILE);
+        int linesBefore = report.getLinesRead(), malformedBefore = report.getMalformedLines();
+        IntObjectMap<User> usersById = new IntObjectMap<>(allUsers.size());
+        for (User u : allUsers) usersById.put(u.getId(), u);
+        IntObjectMap<Order> ordersById = new IntObjectMap<>();
+
+        try (CsvTokenizer csv = CsvTokenizer.open(file.toPath())) {
+            csv.nextRecord(); // skip header
+            while (csv.nextRecord()) {
+                report.lineRead();
+                int orderId, userId, productId, qty;
+                long createdAt = 0;
+                try {
+                    orderId = csv.nextInt();
+                    userId = csv.nextInt();
+                    productId = csv.nextInt();
+                    qty = csv.nextInt();
+                    // files written before timestamps have four columns
+                    if (csv.hasField()) createdAt = csv.nextLong();
+                } catch (NumberFormatException e) {
+                    report.malformedLine();
+                    continue;
+                }
 
-            if (product != null) {
-                OrderItem item = new OrderItem();
-                item.setProduct(product);
-                item.setQuantity(qty);
-                currentOrder.getItems().add(item);
+                Order order = ordersById.get(orderId);
+                if (order == null) {
+                    User user = usersById.get(userId);
+                    if (user == null) report.missingUser(userId);
+
+                    order = new Order();
+                    order.setId(orderId);
+                    order.setUser(user);
+                    order.setCreatedAt(createdAt);
+                    ordersById.put(orderId, order);
+                    orders.add(order);
+                }
+
+                Product product = catalog.get(productId);
+                if (product == null) {
+                    report.missingProduct(productId);
+                    continue;
+                }
+                order.addItem(new OrderItem(product, qty));
             }
+        } catch (IOException e) {
+            ERRORS.inc();
+            e.printStackTrace();
         }
-    } catch (IOException e) {
-        e.printStackTrace();
+        int lines = report.getLinesRead() - linesBefore;
+        long bytes = countRead(file, lines, report.getMalformedLines() - malformedBefore);
+        ORDERS_LOAD.recordSince(start);
+        event.finish(lines, bytes);
+        return orders;
     }
 
-    return orders;
-}
+    // --------- Helpers ---------
+
+    // One metrics update per file read, not per row; returns the file's size
+    private static long countRead(File file, int rows, int malformed) {
+        long bytes = file.length();
+        ROWS_READ.add(rows);
+        ROWS_MALFORMED.add(malformed);
+        BYTES_READ.add(bytes);
+        return bytes;
+    }
+
+    private static long length(String file) {
+        return new File(file).length(); // 0 if missing
+    }
 
+    private static PrintWriter writer(String file) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8));
+    }
+
+    // Quote a text field if it contains a comma, quote or line break (RFC 4180)
+    static String field(String s) {
+        if (s == null) return "";
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + s.replace("\"", "\"\"") + '"';
+            }
+        }
+        return s;
+    }
 }
@@ -0,0 +1,160 @@
+package ui;
+
+import dao.IntObjectMap;
+import model.OrderItem;
+import model.Product;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shopping cart: one line per product id with a quantity.
+ *
+ * Adding a product that is already in the cart bumps its quantity, and
+ * changing a quantity updates that single row. Both cost O(1) and fire an
+ * event for that row only. The total is kept as a running sum and is not
+ * recomputed from the lines. Rows stay in the order products were first
+ * added; removing a line is O(lines).
+ *
+ * Quantity is editable in the table. Used on the EDT.
+ */
+public class CartModel extends AbstractTableModel {
+
+    private static final String[] COLS = {"ID", "Name", "Price", "Qty", "Subtotal"};
+    private static final int QTY_COL = 3;
+
+    private static final class Line {
+        final Product product;
+        int quantity;
+        int row;
+
+        Line(Product product, int row) {
+            this.product = product;
+            this.row = row;
+        }
+    }
+
+    private final ArrayList<Line> lines = new ArrayList<>();
+    private final IntObjectMap<Line> byProductId = new IntObjectMap<>();
+    private double total;
+    private int units;
+
+    // ---------------- Cart operations ----------------
+
+    public void add(Product p) {
+        add(p, 1);
+    }
+
+    public void add(Product p, int qty) {
+        if (qty <= 0) return;
+        Line line = byProductId.get(p.getId());
+        if (line == null) {
+            line = new Line(p, lines.size());
+            lines.add(line);
+            byProductId.put(p.getId(), line);
+            change(line, qty);
+            fireTableRowsInserted(line.row, line.row);
+        } else {
+            change(line, qty);
+            fireTableRowsUpdated(line.row, line.row);
+        }
+    }
+
+    // 0 or less removes the line
+    public void setQuantity(int productId, int qty) {
+        Line line = byProductId.get(productId);
+        if (line == null) return;
+        if (qty <= 0) {
+            remove(productId);
+            return;
+        }
+        change(line, qty - line.quantity);
+        fireTableRowsUpdated(line.row, line.row);
+    }
+
+    public void remove(int productId) {
+        Line line = byProductId.remove(productId);
+        if (line == null) return;
+        change(line, -line.quantity);
+        lines.remove(line.row);
+        for (int i = line.row; i < lines.size(); i++) lines.get(i).row = i;
+        if (lines.isEmpty()) total = 0; // drop rounding drift from the running sum
+        fireTableRowsDeleted(line.row, line.row);
+    }
+
+    // Takes the given quantities out (an order that was just placed); lines added meanwhile stay
+    public void subtract(List<OrderItem> items) {
+        for (OrderItem it : items) {
+            Line line = byProductId.get(it.getProduct().getId());
+            if (line != null) setQuantity(line.product.getId(), line.quantity - it.getQuantity());
+        }
+    }
+
+    public void clear() {
+        int n = lines.size();
+        if (n == 0) return;
+        lines.clear();
+        byProductId.clear();
+        total = 0;
+        units = 0;
+        fireTableRowsDeleted(0, n - 1);
+    }
+
+    public boolean isEmpty() { return lines.isEmpty(); }
+    public int getLineCount() { return lines.size(); }
+    public int getUnitCount() { return units; }
+    public double getTotal() { return total; }
+
+    public Product getProductAt(int row) { return lines.get(row).product; }
+
+    // One order line per product, with its quantity
+    public List<OrderItem> toOrderItems() {
+        List<OrderItem> items = new ArrayList<>(lines.size());
+        for (Line l : lines) items.add(new OrderItem(l.product, l.quantity));
+        return items;
+    }
+
+    private void change(Line line, int delta) {
+        line.quantity += delta;
+        units += delta;
+        total += delta * line.product.getPrice();
+    }
+
+    // ---------------- Table model ----------------
+
+    @Override public int getRowCount() { return lines.size(); }
+    @Override public int getColumnCount() { return COLS.length; }
+    @Override public String getColumnName(int col) { return COLS[col]; }
+
+    @Override
+    public Class<?> getColumnClass(int col) {
+        switch (col) {
+            case 0: case QTY_COL: return Integer.class;
+            case 1: return String.class;
+            default: return Double.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int col) { return col == QTY_COL; }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        Line l = lines.get(row);
+        switch (col) {
+            case 0: return l.product.getId();
+            case 1: return l.product.getName();
+            case 2: return l.product.getPrice();
+            case 3: return l.quantity;
+            case 4: return l.quantity * l.product.getPrice();
+            default: return null;
+        }
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int col) {
+        if (col != QTY_COL || !(value instanceof Integer qty)) return;
+        setQuantity(lines.get(row).product.getId(), qty);
+    }
+}
@@ -1,28 +1,28 @@
 package ui;
 
-import model.Product;
-import model.Order;
 import model.OrderItem;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public class CartPage extends JPanel {
 
-    private final List<Product> cart;
+    private final CartModel cart;
     private final JPanel contentCards;
     private final String backCard;
-    private final Consumer<List<Product>> onPlaceOrder; // callback to DashboardFrame
+    // callback to DashboardFrame: the items, then a callback it runs on the EDT with whether the order was saved
+    private final BiConsumer<List<OrderItem>, Consumer<Boolean>> onPlaceOrder;
 
     private JTable cartTable;
-    private CartTableModel cartModel;
+    private JLabel totalLabel;
+    private JButton placeOrderBtn;
 
     // Updated constructor to take a callback
-    public CartPage(List<Product> cart, JPanel contentCards, String backCard, Consumer<List<Product>> onPlaceOrder) {
+    public CartPage(CartModel cart, JPanel contentCards, String backCard, BiConsumer<List<OrderItem>, Consumer<Boolean>> onPlaceOrder) {
         this.cart = cart;
         this.contentCards = contentCards;
         this.backCard = backCard;
@@ -39,9 +39,8 @@ public class CartPage extends JPanel {
         title.setBorder(new EmptyBorder(10, 12, 10, 12));
         add(title, BorderLayout.NORTH);
 
-        // Table
-        cartModel = new CartTableModel(cart);
-        cartTable = new JTable(cartModel);
+        // Table (Qty is editable; 0 removes the line)
+        cartTable = new JTable(cart);
         cartTable.setFillsViewportHeight(true);
         cartTable.setRowHeight(28);
         JScrollPane scroll = new JScrollPane(cartTable);
@@ -51,6 +50,12 @@ public class CartPage extends JPanel {
         // Bottom panel
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT, 12, 10));
 
+        totalLabel = new JLabel();
+        totalLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        // the cart keeps a running total; the label just reads it on each row event
+        cart.addTableModelListener(e -> updateTotal());
+        updateTotal();
+
         JButton backBtn = new JButton("← Back");
         backBtn.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         backBtn.setBackground(new Color(220, 210, 215));
@@ -60,56 +65,55 @@ public class CartPage extends JPanel {
             cl.show(contentCards, backCard); // go back to previous card
         });
 
-        JButton placeOrderBtn = new JButton("Place Order");
+        JButton removeBtn = new JButton("Remove");
+        removeBtn.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        removeBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        removeBtn.addActionListener(e -> {
+            int row = cartTable.getSelectedRow();
+            if (row >= 0) cart.remove(cart.getProductAt(cartTable.convertRowIndexToModel(row)).getId());
+        });
+
+        placeOrderBtn = new JButton("Place Order");
         placeOrderBtn.setFont(new Font("Segoe UI", Font.BOLD, 14));
         placeOrderBtn.setBackground(new Color(255, 120, 150));
         placeOrderBtn.setForeground(Color.WHITE);
         placeOrderBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
         placeOrderBtn.addActionListener(e -> placeOrder());
 
+        bottom.add(totalLabel);
         bottom.add(backBtn);
+        bottom.add(removeBtn);
         bottom.add(placeOrderBtn);
 
         add(bottom, BorderLayout.SOUTH);
     }
 
+    private void updateTotal() {
+        totalLabel.setText(cart.getUnitCount() + " items   Total: ৳" + String.format("%.2f", cart.getTotal()));
+    }
+
     private void placeOrder() {
+        if (cartTable.isEditing()) cartTable.getCellEditor().stopCellEditing();
         if (cart.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Your cart is empty!");
             return;
         }
 
-        // Delegate actual order creation to DashboardFrame via callback
-        onPlaceOrder.accept(cart);
+        // Delegate actual order creation to DashboardFrame via callback: one consolidated order.
+        // Once it is saved only the submitted quantities leave the cart, so anything added while
+        // the save ran stays; a failed save leaves the cart for another try.
+        placeOrderBtn.setEnabled(false);
+        List<OrderItem> submitted = cart.toOrderItems();
+        onPlaceOrder.accept(submitted, saved -> {
+            placeOrderBtn.setEnabled(true);
+            if (!saved) return;
 
-        // Clear cart UI
-        cart.clear();
-        cartModel.fireTableDataChanged();
+            cart.subtract(submitted);
 
-        // Optional: switch back to home page after placing order
-        CardLayout cl = (CardLayout) contentCards.getLayout();
-        cl.show(contentCards, backCard);
-    }
-
-    // Table Model
-    private static class CartTableModel extends AbstractTableModel {
-        private final String[] columns = {"ID", "Name", "Price"};
-        private final List<Product> cart;
-
-        public CartTableModel(List<Product> cart) { this.cart = cart; }
-
-        @Override public int getRowCount() { return cart.size(); }
-        @Override public int getColumnCount() { return columns.length; }
-        @Override public String getColumnName(int col) { return columns[col]; }
-        @Override
-        public Object getValueAt(int rowIndex, int columnIndex) {
-            Product p = cart.get(rowIndex);
-            switch (columnIndex) {
-                case 0: return p.getId();
-                case 1: return p.getName();
-                case 2: return p.getPrice();
-                default: return null;
-            }
-        }
+            // Back to the previous page, unless there is more in the cart to order
+            if (!cart.isEmpty()) return;
+            CardLayout cl = (CardLayout) contentCards.getLayout();
+            cl.show(contentCards, backCard);
+        });
     }
 }
@@ -0,0 +1,43 @@
+package ui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight Recorder event for one paintComponent of a dashboard chart. */
+@Name("dealmate.ChartPaint")
+@Label("Chart Paint")
+@Category({"DealMate", "UI"})
+@StackTrace(false) // always the same paint stack
+public class ChartPaintEvent extends Event {
+
+    @Label("Chart")
+    public String chart;
+
+    @Label("Rows")
+    public long rows; // data points read to draw it
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    public static ChartPaintEvent start(String chart) {
+        ChartPaintEvent e = new ChartPaintEvent();
+        e.chart = chart;
+        e.begin();
+        return e;
+    }
+
+    public void finish(long rows, int width, int height) {
+        end();
+        if (!shouldCommit()) return;
+        this.rows = rows;
+        this.width = width;
+        this.height = height;
+        commit();
+    }
+}
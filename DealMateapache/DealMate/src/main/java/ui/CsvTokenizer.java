@@ -0,0 +1,337 @@
+package ui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Byte-level CSV reader over a memory-mapped file.
+ *
+ * ints and doubles are parsed straight from the mapped bytes; only text fields
+ * become Strings (decoded as UTF-8). Quoting follows RFC 4180: a field may be
+ * wrapped in double quotes, can then contain commas and line breaks, and ""
+ * stands for one quote. CRLF and LF line ends are both accepted.
+ *
+ * The mapping is owned by a confined arena and released by close(), so the
+ * file can be replaced right after loading (Windows refuses to overwrite a
+ * file that is still mapped). Use from a single thread.
+ *
+ * Usage: while (t.nextRecord()) { int id = t.nextInt(); String name = t.nextString(); ... }
+ * A parse error throws NumberFormatException with the field already consumed,
+ * so the caller can count it and move on with nextRecord().
+ */
+public final class CsvTokenizer implements Closeable {
+
+    private static final byte COMMA = ',', QUOTE = '"', CR = '\r', LF = '\n';
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Arena arena;
+    private final MemorySegment data;
+    private final long size;
+    private long pos;
+    private boolean endOfRecord = true;
+    private boolean started;
+    private int record;
+    private byte[] scratch = new byte[64];
+
+    private CsvTokenizer(Arena arena, MemorySegment data, long size) {
+        this.arena = arena;
+        this.data = data;
+        this.size = size;
+        // Skip a UTF-8 byte order mark
+        if (size >= 3 && at(0) == (byte) 0xEF && at(1) == (byte) 0xBB && at(2) == (byte) 0xBF) pos = 3;
+    }
+
+    public static CsvTokenizer open(Path file) throws IOException {
+        Arena arena = Arena.ofConfined();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            MemorySegment seg = size == 0 ? MemorySegment.NULL : ch.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return new CsvTokenizer(arena, seg, size);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    // ---------------- Records ----------------
+
+    /** Moves to the next non-empty record, skipping whatever is left of the current one. */
+    public boolean nextRecord() {
+        if (started) {
+            while (!endOfRecord) skipField();
+        }
+        started = true;
+        while (pos < size && (at(pos) == CR || at(pos) == LF)) pos++;
+        if (pos >= size) return false;
+        endOfRecord = false;
+        record++;
+        return true;
+    }
+
+    /** True while the current record still has unread fields. */
+    public boolean hasField() {
+        return !endOfRecord;
+    }
+
+    /** 1-based number of the current record (header included). */
+    public int recordNumber() {
+        return record;
+    }
+
+    // ---------------- Fields ----------------
+
+    public void skipField() {
+        if (endOfRecord) return;
+        if (pos < size && at(pos) == QUOTE) {
+            readQuoted();
+        } else {
+            while (pos < size && !isDelimiter(at(pos))) pos++;
+        }
+        endField();
+    }
+
+    public String nextString() {
+        requireField();
+        int len;
+        if (pos < size && at(pos) == QUOTE) {
+            len = readQuoted();
+        } else {
+            long start = pos;
+            while (pos < size && !isDelimiter(at(pos))) pos++;
+            len = copy(start, pos);
+        }
+        endField();
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    public int nextInt() {
+        requireField();
+        if (pos < size && at(pos) == QUOTE) return parseIntField(nextString().trim());
+
+        long start = pos;
+        skipSpaces();
+        boolean negative = false;
+        if (pos < size && (at(pos) == '-' || at(pos) == '+')) negative = at(pos++) == '-';
+
+        long value = 0;
+        int digits = 0;
+        while (pos < size) {
+            int d = at(pos) - '0';
+            if (d < 0 || d > 9) break;
+            value = value * 10 + d;
+            if (value > 1L + Integer.MAX_VALUE) break;
+            digits++;
+            pos++;
+        }
+        skipSpaces();
+        if (negative) value = -value;
+        if (digits == 0 || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE || !atDelimiter()) {
+            throw badField(start, "int");
+        }
+        endField();
+        return (int) value;
+    }
+
+    public long nextLong() {
+        requireField();
+        if (pos < size && at(pos) == QUOTE) return parseLongField(nextString().trim());
+
+        long start = pos;
+        skipSpaces();
+        boolean negative = false;
+        if (pos < size && (at(pos) == '-' || at(pos) == '+')) negative = at(pos++) == '-';
+
+        long value = 0;
+        int digits = 0;
+        while (pos < size) {
+            int d = at(pos) - '0';
+            if (d < 0 || d > 9) break;
+            value = value * 10 + d;
+            digits++;
+            pos++;
+        }
+        skipSpaces();
+        if (digits == 0 || !atDelimiter()) throw badField(start, "long");
+        if (digits > 18) {
+            // might have overflowed; let the JDK decide
+            pos = start;
+            while (pos < size && !isDelimiter(at(pos))) pos++;
+            String text = new String(scratch, 0, copy(start, pos), StandardCharsets.UTF_8).trim();
+            endField();
+            return parseLongField(text);
+        }
+        endField();
+        return negative ? -value : value;
+    }
+
+    public double nextDouble() {
+        requireField();
+        if (pos < size && at(pos) == QUOTE) return parseDoubleField(nextString().trim());
+
+        long start = pos;
+        skipSpaces();
+        boolean negative = false;
+        if (pos < size && (at(pos) == '-' || at(pos) == '+')) negative = at(pos++) == '-';
+
+        // Fast path: up to 15 significant digits and a small power of ten are exact in a double
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean any = false, dot = false;
+        while (pos < size) {
+            byte b = at(pos);
+            if (b >= '0' && b <= '9') {
+                any = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) digits++;
+                    if (dot) scale--;
+                } else {
+                    digits++;
+                    if (!dot) scale++;
+                }
+                pos++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (any && pos < size && (at(pos) == 'e' || at(pos) == 'E')) {
+            pos++;
+            boolean expNeg = false;
+            if (pos < size && (at(pos) == '-' || at(pos) == '+')) expNeg = at(pos++) == '-';
+            int exp = 0, expDigits = 0;
+            while (pos < size && at(pos) >= '0' && at(pos) <= '9' && exp < 10_000) {
+                exp = exp * 10 + (at(pos++) - '0');
+                expDigits++;
+            }
+            if (expDigits == 0) any = false;
+            scale += expNeg ? -exp : exp;
+        }
+        skipSpaces();
+
+        if (any && digits <= 15 && Math.abs(scale) <= 22 && atDelimiter()) {
+            double v = scale < 0 ? mantissa / POW10[-scale] : mantissa * POW10[scale];
+            endField();
+            return negative ? -v : v;
+        }
+
+        // Slow path (long mantissas, huge exponents, NaN/Infinity): let the JDK parse it
+        pos = start;
+        while (pos < size && !isDelimiter(at(pos))) pos++;
+        String text = new String(scratch, 0, copy(start, pos), StandardCharsets.UTF_8).trim();
+        endField();
+        return parseDoubleField(text);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    // ---------------- Internals ----------------
+
+    private byte at(long i) {
+        return data.get(ValueLayout.JAVA_BYTE, i);
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == COMMA || b == LF || b == CR;
+    }
+
+    private boolean atDelimiter() {
+        return pos >= size || isDelimiter(at(pos));
+    }
+
+    private void skipSpaces() {
+        while (pos < size && (at(pos) == ' ' || at(pos) == '\t')) pos++;
+    }
+
+    private void requireField() {
+        if (endOfRecord) throw new NumberFormatException("Record " + record + " has too few fields");
+    }
+
+    // Consume the delimiter after a field; a line break ends the record
+    private void endField() {
+        while (pos < size && !isDelimiter(at(pos))) pos++; // junk after a closing quote
+        if (pos >= size) {
+            endOfRecord = true;
+        } else if (at(pos) == COMMA) {
+            pos++;
+        } else {
+            if (at(pos) == CR && pos + 1 < size && at(pos + 1) == LF) pos++;
+            pos++;
+            endOfRecord = true;
+        }
+    }
+
+    // Reads a quoted field into scratch, unescaping "", and returns its length
+    private int readQuoted() {
+        pos++; // opening quote
+        int len = 0;
+        while (pos < size) {
+            byte b = at(pos++);
+            if (b == QUOTE) {
+                if (pos < size && at(pos) == QUOTE) {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+            if (len == scratch.length) scratch = Arrays.copyOf(scratch, len * 2);
+            scratch[len++] = b;
+        }
+        return len;
+    }
+
+    private int copy(long from, long to) {
+        int len = (int) (to - from);
+        if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, from, scratch, 0, len);
+        return len;
+    }
+
+    private NumberFormatException badField(long start, String type) {
+        pos = start;
+        while (pos < size && !isDelimiter(at(pos))) pos++;
+        String text = new String(scratch, 0, copy(start, pos), StandardCharsets.UTF_8);
+        endField();
+        return new NumberFormatException("Record " + record + ": not an " + type + ": \"" + text + "\"");
+    }
+
+    private int parseIntField(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Record " + record + ": not an int: \"" + text + "\"");
+        }
+    }
+
+    private long parseLongField(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Record " + record + ": not a long: \"" + text + "\"");
+        }
+    }
+
+    private double parseDoubleField(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Record " + record + ": not a double: \"" + text + "\"");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ui;
+
+import dao.IntObjectMap;
+import model.Order;
+import model.OrderItem;
+import model.Product;
+
+import java.util.Collection;
+
+/**
+ * Running totals behind the dashboard stat cards.
+ *
+ * reset() counts everything once; after that the dashboard reports each
+ * change (order placed, product added/removed) and the totals are adjusted
+ * in place, so a stat card update never rescans orders. An order costs
+ * O(items), a product event O(1).
+ *
+ * Per-seller and per-product totals are keyed by id. Order lines keep their
+ * own copy of the product, so removing a product from the catalog does not
+ * change revenue already earned.
+ *
+ * Revenue over time goes into a SalesSeries (daily/hourly buckets) that the
+ * charts read instead of walking the orders.
+ *
+ * Not thread-safe; the dashboard uses it on the EDT.
+ */
+public class DashboardAggregates {
+
+    /** Totals for one seller or one product. */
+    public static final class Totals {
+        int orders;      // orders with at least one line for this key
+        long units;
+        double revenue;
+        int listed;      // products currently in the catalog (sellers only)
+        long lastOrder;  // stamp of the last order counted in 'orders'
+
+        public int getOrders() { return orders; }
+        public long getUnits() { return units; }
+        public double getRevenue() { return revenue; }
+        public int getListed() { return listed; }
+    }
+
+    private int productCount;
+    private int orderCount;
+    private long lineCount;
+    private long unitCount;
+    private double revenue;
+
+    private final IntObjectMap<Totals> bySeller = new IntObjectMap<>();
+    private final IntObjectMap<Totals> byProduct = new IntObjectMap<>();
+    private final SalesSeries sales = new SalesSeries();
+
+    private long orderStamp;
+
+    // bumped on every change, so views can skip work when nothing moved
+    private long version;
+
+    public void reset(Collection<Product> products, Collection<Order> orders) {
+        productCount = 0;
+        orderCount = 0;
+        lineCount = 0;
+        unitCount = 0;
+        revenue = 0;
+        bySeller.clear();
+        byProduct.clear();
+        sales.clear();
+        if (products != null) for (Product p : products) productAdded(p);
+        if (orders != null) for (Order o : orders) orderAdded(o);
+        version++;
+    }
+
+    // ---------------- Events ----------------
+
+    public void orderAdded(Order o) {
+        orderCount++;
+        // an order counts once per seller/product even if it has several lines for it
+        long stamp = ++orderStamp;
+        double orderTotal = 0;
+        for (OrderItem it : o.getItems()) {
+            lineCount++;
+            int qty = it.getQuantity();
+            unitCount += qty;
+            Product p = it.getProduct();
+            if (p == null) continue;
+            double amount = qty * p.getPrice();
+            orderTotal += amount;
+            add(totals(byProduct, p.getId()), qty, amount, stamp);
+            add(totals(bySeller, p.getSellerId()), qty, amount, stamp);
+        }
+        revenue += orderTotal;
+        sales.record(o.getCreatedAt(), orderTotal);
+        version++;
+    }
+
+    public void productAdded(Product p) {
+        productCount++;
+        totals(bySeller, p.getSellerId()).listed++;
+        version++;
+    }
+
+    public void productRemoved(Product p) {
+        productCount--;
+        Totals t = bySeller.get(p.getSellerId());
+        if (t != null && t.listed > 0) t.listed--;
+        version++;
+    }
+
+    // ---------------- Reads ----------------
+
+    public int getProductCount() { return productCount; }
+    public int getOrderCount() { return orderCount; }
+    public long getLineCount() { return lineCount; }
+    public long getUnitCount() { return unitCount; }
+    public double getRevenue() { return revenue; }
+    public long getVersion() { return version; }
+    public SalesSeries getSales() { return sales; }
+
+    // null if the seller/product has no activity
+    public Totals forSeller(int sellerId) { return bySeller.get(sellerId); }
+    public Totals forProduct(int productId) { return byProduct.get(productId); }
+
+    // ---------------- Internals ----------------
+
+    private static void add(Totals t, int qty, double amount, long stamp) {
+        t.units += qty;
+        t.revenue += amount;
+        if (t.lastOrder != stamp) {
+            t.lastOrder = stamp;
+            t.orders++;
+        }
+    }
+
+    private static Totals totals(IntObjectMap<Totals> map, int id) {
+        Totals t = map.get(id);
+        if (t == null) {
+            t = new Totals();
+            map.put(id, t);
+        }
+        return t;
+    }
+}
@@ -1,6 +1,8 @@
 package ui;
+import dao.ChangeListener;
 import dao.OrderDAO;
 import dao.ProductDAO;
+import dao.Repositories;
 import dao.UserDAO;
 import model.Product;
 import model.User;
@@ -14,13 +16,14 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * DashboardFrame - Full polished modern pastel dashboard with:
  * - Sidebar navigation that switches views (Home, Products, Orders, Account)
  * - Pure-Swing custom charts (Bar, Line, Pie) implemented with paintComponent
  * - Product CRUD wired to ProductDAO (getAllProducts(), addProduct(), deleteProduct())
- * - Orders remain in-memory (can be replaced by OrderDAO later)
+ * - Orders are placed through OrderDAO (one durable journal record per checkout)
  * - UI polish: rounded panels, hover effects, avatar menu, search, bell, toast
  *
  * Notes:
@@ -28,16 +31,25 @@ import java.util.List;
  * - This file aims to be self-contained and readable.
  */
 public class DashboardFrame extends JFrame {
-private final List<Product> cartProducts = new ArrayList<>();
+    private final CartModel cart = new CartModel();
 
     private final User currentUser;
-    private final ProductDAO productDAO;
-    private final UserDAO userDAO;
-    private final OrderDAO orderDAO;
-    
+    // App-wide stores, handed over by the background loader; null until the first load completes
+    private final Repositories repos = Repositories.get();
+    private ProductDAO productDAO;
+    private UserDAO userDAO;
+    private OrderDAO orderDAO;
+
+    private final DashboardLoader loader = new DashboardLoader();
+    private boolean loaded;
+    private final List<Runnable> beforeLoad = new ArrayList<>(); // changes that arrived ahead of the snapshot; EDT only
+    private volatile ProductDAO listenedProducts; // where the listeners are registered, for dispose()
+    private volatile OrderDAO listenedOrders;
 
     private List<Product> products;
     private List<Order> orders;
+    private int snapshotMaxOrderId;                          // newest order the loaded snapshot has; EDT only
+    private final Set<Integer> removedEarly = new HashSet<>(); // product ids whose removal arrived before their add; EDT only
 
     // CardLayout main content
     private final JPanel contentCards = new JPanel(new CardLayout());
@@ -52,6 +64,10 @@ private final List<Product> cartProducts = new ArrayList<>();
     private OrderTableModel orderTableModel;
     private JTable ordersTable;
 
+    // Running totals for the stat cards, updated per event instead of rescanning
+    private final DashboardAggregates stats = new DashboardAggregates();
+    private long shownStatsVersion = -1;
+
     // Buttons
     private JButton addProductBtn, removeProductBtn, placeOrderBtn, logoutBtn;
 
@@ -69,9 +85,6 @@ private final List<Product> cartProducts = new ArrayList<>();
 
     public DashboardFrame(User user) {
         this.currentUser = user;
-        this.productDAO = new ProductDAO();
-        this.userDAO = new UserDAO();
-        this.orderDAO = new OrderDAO(); 
         this.products = new ArrayList<>();
         this.orders = new ArrayList<>();
 
@@ -81,17 +94,115 @@ private final List<Product> cartProducts = new ArrayList<>();
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
 
-        loadData();
+        // paint right away with placeholders; data arrives from the loader
         initUI();
-        refreshAll();
+        loadData();
     }
 
+    // Disk work runs on the loader thread; the result is applied on the EDT
     private void loadData() {
-        List<Product> p = productDAO.getAllProducts();
-        products = (p != null) ? p : new ArrayList<>();
-        // orders can be loaded from DAO if implemented
-         List<Order> o = orderDAO.getAllOrders();  // read saved orders
-    orders = (o != null) ? o : new ArrayList<>();
+        DashboardRefreshEvent event = DashboardRefreshEvent.start("loadData");
+        loader.load(repos, this::attachListeners, s -> {
+            onDataLoaded(s);
+            event.finish(products.size(), orders.size(), orderTableModel.getRowCount());
+        }, e -> {
+            event.fail();
+            showToast("Could not load data: " + e.getMessage());
+        });
+    }
+
+    private void onDataLoaded(DashboardLoader.Snapshot s) {
+        productDAO = s.productDAO();
+        orderDAO = s.orderDAO();
+        userDAO = s.userDAO();
+        products = new ArrayList<>(s.products()); // working copy in id order; productListener keeps it current
+        orders = s.orders(); // already a copy; the dashboard appends to it
+        for (Order o : orders) snapshotMaxOrderId = Math.max(snapshotMaxOrderId, o.getId());
+        loaded = true;
+        // Changes reported while the snapshot was being read; those it already has are skipped
+        for (Runnable r : beforeLoad) r.run();
+        beforeLoad.clear();
+        refreshAll();
+    }
+
+    // Loader thread, before the stores are read, so no change falls between the snapshot and the listeners
+    private synchronized void attachListeners(ProductDAO p, OrderDAO o) {
+        if (listenedProducts != null) return;
+        p.addChangeListener(productListener);
+        o.addChangeListener(orderListener);
+        listenedProducts = p;
+        listenedOrders = o;
+    }
+
+    // On the EDT: apply now, or once the snapshot is in
+    private void whenLoaded(Runnable change) {
+        if (loaded) change.run();
+        else beforeLoad.add(change);
+    }
+
+    // Saved orders (from this or another frame) join the table, stats and charts.
+    // Events can arrive out of id order (concurrent checkouts), so each is checked against the
+    // snapshot alone: ids are handed out under the journal lock, so the snapshot holds every id
+    // up to its newest and none above it. Each later order is reported once.
+    private final ChangeListener<Order> orderListener = o -> SwingUtilities.invokeLater(() -> whenLoaded(() -> {
+        if (o.getId() <= snapshotMaxOrderId) return;
+        orders.add(o);
+        stats.orderAdded(o);
+        ordersChanged();
+    }));
+
+    // Catalog changes from any frame. Changes the loaded copy already reflects are ignored.
+    // The add and remove of one product can arrive in either order; ids are never reused,
+    // so a removal that finds nothing is remembered and the late add is dropped.
+    private final ChangeListener<Product> productListener = new ChangeListener<>() {
+        @Override public void added(Product p) {
+            SwingUtilities.invokeLater(() -> whenLoaded(() -> {
+                int i = productIndex(p.getId());
+                if (i >= 0 || removedEarly.remove(p.getId())) return;
+                products.add(-i - 1, p);
+                stats.productAdded(p);
+                productsChanged();
+            }));
+        }
+        @Override public void removed(Product p) {
+            SwingUtilities.invokeLater(() -> whenLoaded(() -> {
+                int i = productIndex(p.getId());
+                if (i < 0) {
+                    removedEarly.add(p.getId());
+                    return;
+                }
+                products.remove(i);
+                stats.productRemoved(p);
+                productsChanged();
+            }));
+        }
+    };
+
+    // Binary search on the id-ordered products; negative result as in Collections.binarySearch
+    private int productIndex(int id) {
+        int lo = 0, hi = products.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midId = products.get(mid).getId();
+            if (midId < id) lo = mid + 1;
+            else if (midId > id) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private boolean checkLoaded() {
+        if (!loaded) showToast("Still loading data...");
+        return loaded;
+    }
+
+    @Override
+    public void dispose() {
+        loader.cancel();
+        liveSearch.cancel();
+        if (listenedProducts != null) listenedProducts.removeChangeListener(productListener);
+        if (listenedOrders != null) listenedOrders.removeChangeListener(orderListener);
+        super.dispose();
     }
 
     private void initUI() {
@@ -135,29 +246,16 @@ private final List<Product> cartProducts = new ArrayList<>();
         contentCards.add(createProductsPanel(), "PRODUCTS");
         contentCards.add(createOrdersPanel(), "ORDERS");
         contentCards.add(createAccountPanel(), "ACCOUNT");
+        contentCards.add(createDiagnosticsPanel(), "DIAGNOSTICS");
 
         // default view
         ((CardLayout) contentCards.getLayout()).show(contentCards, "HOME");
-        contentCards.add(new CartPage(cartProducts, contentCards, "HOME", cart -> {
-    // This code runs when "Place Order" is clicked
-    if (cart.isEmpty()) return;
-
-    for (Product p : cart) {
-        OrderItem it = new OrderItem();
-        it.setProduct(p);
-        it.setQuantity(1); // default quantity, can change later
-
-        Order o = new Order();
-        o.setId(orders.size() + 1);
-        o.setUser(currentUser);
-        o.getItems().add(it);
-
-        orders.add(o);
-    }
-
-    cart.clear(); // empty the cart
-    refreshAll(); // refresh home stats and recent orders
-    showToast("Order placed for " + cart.size() + " items!");
+        contentCards.add(new CartPage(cart, contentCards, "HOME", (items, done) -> {
+    // This code runs when "Place Order" is clicked: one line per product, with its quantity
+    if (items.isEmpty() || !checkLoaded()) { done.accept(false); return; }
+    int units = 0;
+    for (OrderItem it : items) units += it.getQuantity();
+    checkout(items, "Order placed for " + units + " items!", done);
 }), "CART");
 
  }
@@ -191,6 +289,7 @@ private final List<Product> cartProducts = new ArrayList<>();
         nav.add(createNavButton("Cart", "CART", false)); // <-- NEW CART BUTTON
 
         nav.add(createNavButton("Account", "ACCOUNT", false));
+        nav.add(createNavButton("Diagnostics", "DIAGNOSTICS", false));
         nav.add(Box.createVerticalGlue());
         nav.add(createNavButton("Logout", "LOGOUT", false));
 
@@ -232,39 +331,63 @@ private final List<Product> cartProducts = new ArrayList<>();
 
         return btn;
     }
-    private JPanel searchPanel; // class-level
+    // Search results card, built once; LiveSearch fills its list model with ranked ids
+    private JPanel searchPanel;
+    private JLabel searchTitle;
+    private String searchQuery = ""; // query whose results the card shows
+    private final PagedProductListModel searchResults = new PagedProductListModel(id -> productDAO.getProduct(id));
+    private final LiveSearch liveSearch = new LiveSearch(() -> loaded ? productDAO : null, searchResults, this::onSearchStatus);
 
 private void openSearchPage(String query) {
     if (query.isEmpty()) { showToast("Enter a search term."); return; }
+    if (!checkLoaded()) return;
+    ensureSearchPanel();
+    liveSearch.submitNow(query);
+}
 
-    List<Product> results = productDAO.searchProducts(query);
-
-    if (searchPanel == null) {
-        searchPanel = new JPanel(new BorderLayout());
-        searchPanel.setOpaque(false);
-        contentCards.add(searchPanel, "SEARCH");
-    }
-    searchPanel.removeAll();
-
-    JLabel title = new JLabel("Search Results for: " + query);
-    title.setFont(new Font("Segoe UI", Font.BOLD, 15));
-    title.setBorder(new EmptyBorder(10, 12, 10, 12));
-    title.setForeground(textColor);
-    searchPanel.add(title, BorderLayout.NORTH);
-
-    ProductTableModel model = new ProductTableModel(results);
-    JTable table = new JTable(model);
-    styleTable(table);
-    JScrollPane scroll = new JScrollPane(table);
+private void ensureSearchPanel() {
+    if (searchPanel != null) return;
+    searchPanel = new JPanel(new BorderLayout());
+    searchPanel.setOpaque(false);
+
+    searchTitle = new JLabel("Search Results");
+    searchTitle.setFont(new Font("Segoe UI", Font.BOLD, 15));
+    searchTitle.setBorder(new EmptyBorder(10, 12, 10, 12));
+    searchTitle.setForeground(textColor);
+
+    // Every hit in its own window, beyond the card's MAX_RESULTS
+    JButton openWindow = new JButton("Open in window");
+    openWindow.setFont(uiFont);
+    openWindow.setCursor(new Cursor(Cursor.HAND_CURSOR));
+    openWindow.addActionListener(e -> {
+        if (!searchQuery.isEmpty() && checkLoaded()) new SearchPage(searchQuery, productDAO).setVisible(true);
+    });
+
+    JPanel top = new JPanel(new BorderLayout());
+    top.setOpaque(false);
+    top.add(searchTitle, BorderLayout.WEST);
+    top.add(openWindow, BorderLayout.EAST);
+    searchPanel.add(top, BorderLayout.NORTH);
+
+    JList<Product> list = ProductCellRenderer.install(new JList<>(searchResults));
+    list.setFont(uiFont);
+    JScrollPane scroll = new JScrollPane(list);
+    scroll.setBorder(BorderFactory.createEmptyBorder());
     JPanel container = new RoundedPanel(12, cardColor);
     container.setLayout(new BorderLayout());
     container.setBorder(new EmptyBorder(12, 12, 12, 12));
     container.add(scroll, BorderLayout.CENTER);
     searchPanel.add(container, BorderLayout.CENTER);
+    contentCards.add(searchPanel, "SEARCH");
+}
 
+private void onSearchStatus(LiveSearch.Status st) {
+    if (st.query().isEmpty()) return; // field cleared: leave the current view alone
+    ensureSearchPanel();
+    searchQuery = st.query();
+    String count = st.truncated() ? st.count() + "+" : String.valueOf(st.count());
+    searchTitle.setText("Search Results for: " + st.query() + "  (" + count + ")");
     ((CardLayout) contentCards.getLayout()).show(contentCards, "SEARCH");
-    contentCards.revalidate();
-    contentCards.repaint();
 }
 
     private JPanel createHeader() {
@@ -329,6 +452,17 @@ search.addFocusListener(new FocusAdapter() {
     }
 });
 
+// Search as you type (debounced); the placeholder text is not a query
+search.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+    private void changed() {
+        String text = search.getText();
+        if (!text.equals("Search products...")) liveSearch.textChanged(text);
+    }
+    @Override public void insertUpdate(javax.swing.event.DocumentEvent e) { changed(); }
+    @Override public void removeUpdate(javax.swing.event.DocumentEvent e) { changed(); }
+    @Override public void changedUpdate(javax.swing.event.DocumentEvent e) { }
+});
+
 // Action when Enter is pressed
 search.addActionListener(e -> openSearchPage(search.getText().trim()));
 
@@ -387,10 +521,11 @@ right.add(searchBox);
         cards.setOpaque(false);
         cards.setBorder(new EmptyBorder(8, 0, 12, 0));
 
-        totalProductsLabel = makeStatCard("Total Products", "0");
-        totalOrdersLabel = makeStatCard("Total Orders", "0");
-        pendingOrdersLabel = makeStatCard("Pending Orders", "0");
-        revenueLabel = makeStatCard("Revenue", "৳0.00");
+        // placeholders until the loader delivers
+        totalProductsLabel = makeStatCard("Total Products", "…");
+        totalOrdersLabel = makeStatCard("Total Orders", "…");
+        pendingOrdersLabel = makeStatCard("Pending Orders", "…");
+        revenueLabel = makeStatCard("Revenue", "…");
 
         cards.add(wrapCard(totalProductsLabel));
         cards.add(wrapCard(totalOrdersLabel));
@@ -409,7 +544,7 @@ right.add(searchBox);
         JPanel chartsStack = new JPanel(new GridLayout(3, 1, 12, 12));
         chartsStack.setOpaque(false);
         chartsStack.add(createChartPanel("Sales (Last 7 days)", new LineChartPanel()));
-        chartsStack.add(createChartPanel("Revenue by Day (Bar)", new BarChartPanel()));
+        chartsStack.add(createChartPanel("Revenue by Hour (Last 24h)", new BarChartPanel()));
         chartsStack.add(createChartPanel("Orders Breakdown", new PieChartPanel()));
         split.setLeftComponent(chartsStack);
 
@@ -422,7 +557,8 @@ right.add(searchBox);
         t.setForeground(textColor);
         right.add(t, BorderLayout.NORTH);
 
-        orderTableModel = new OrderTableModel(orders);
+        // both order tables share one model, so one refresh updates both
+        if (orderTableModel == null) orderTableModel = new OrderTableModel(orders);
         ordersTable = new JTable(orderTableModel);
         styleTable(ordersTable);
         JScrollPane orderScroll = new JScrollPane(ordersTable);
@@ -484,7 +620,7 @@ right.add(searchBox);
     int row = productsTable.getSelectedRow();
     if (row < 0) return;
     Product p = products.get(row);
-    cartProducts.add(p);  // add to cart
+    cart.add(p);  // add to cart (same product again: quantity + 1)
     showToast(p.getName() + " added to cart!");
 });
 
@@ -495,7 +631,7 @@ right.add(searchBox);
         JPanel panel = new JPanel(new BorderLayout());
         panel.setOpaque(false);
 
-        orderTableModel = new OrderTableModel(orders);
+        if (orderTableModel == null) orderTableModel = new OrderTableModel(orders);
         ordersTable = new JTable(orderTableModel);
         styleTable(ordersTable);
         JScrollPane scroll = new JScrollPane(ordersTable);
@@ -513,6 +649,24 @@ right.add(searchBox);
         return panel;
     }
 
+    // Store latencies, counters and sizes from the metrics registry
+    private JPanel createDiagnosticsPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setOpaque(false);
+
+        JPanel container = new RoundedPanel(12, cardColor);
+        container.setLayout(new BorderLayout());
+        container.setBorder(new EmptyBorder(12, 12, 12, 12));
+        JLabel label = new JLabel("Diagnostics");
+        label.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        label.setForeground(textColor);
+        container.add(label, BorderLayout.NORTH);
+        container.add(new DiagnosticsPanel(uiFont), BorderLayout.CENTER);
+
+        panel.add(container, BorderLayout.CENTER);
+        return panel;
+    }
+
     private JPanel createAccountPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setOpaque(false);
@@ -631,6 +785,7 @@ right.add(searchBox);
     // ---------------- Actions ----------------
 
     private void onAddProduct() {
+        if (!checkLoaded()) return;
         JPanel input = new JPanel(new GridLayout(3, 2, 8, 8));
         input.add(new JLabel("Product Name:"));
         JTextField nameField = new JTextField();
@@ -659,25 +814,23 @@ right.add(searchBox);
         Product p = new Product();
         p.setName(name); p.setPrice(price); p.setSellerId(currentUser.getId());
 
-        productDAO.addProduct(p);
-        loadData();
-        refreshAll();
+        productDAO.addProduct(p); // productListener updates stats and table
         showToast("Product added: " + name);
     }
 
     private void onRemoveProduct() {
+        if (!checkLoaded()) return;
         int row = productsTable.getSelectedRow();
         if (row < 0) { JOptionPane.showMessageDialog(this, "Select a product."); return; }
         Product p = products.get(row);
         int confirm = JOptionPane.showConfirmDialog(this, "Delete " + p.getName() + "?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm != JOptionPane.YES_OPTION) return;
-        productDAO.deleteProduct(p.getId());
-        loadData();
-        refreshAll();
+        productDAO.deleteProduct(p.getId()); // productListener updates stats and table
         showToast("Product removed: " + p.getName());
     }
 
     private void onPlaceOrder() {
+        if (!checkLoaded()) return;
         int row = productsTable.getSelectedRow();
         if (row < 0) { JOptionPane.showMessageDialog(this, "Select a product to order."); return; }
         Product p = products.get(row);
@@ -686,15 +839,27 @@ right.add(searchBox);
         int qty;
         try { qty = Integer.parseInt(qtyStr); if (qty <= 0) throw new NumberFormatException(); } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Invalid qty."); return; }
 
-        OrderItem it = new OrderItem();
-        it.setProduct(p); it.setQuantity(qty);
+        List<OrderItem> items = new ArrayList<>();
+        items.add(new OrderItem(p, qty));
+        checkout(items, "Order placed: " + p.getName() + " x" + qty, saved -> { });
+    }
+
+    // One order for all lines, saved durably off the EDT; orderListener then shows it.
+    // done runs on the EDT with whether the order was saved.
+    private void checkout(List<OrderItem> items, String placedMessage, Consumer<Boolean> done) {
         Order o = new Order();
-        o.setId(orders.size() + 1);
         o.setUser(currentUser);
-        o.getItems().add(it);
-        orders.add(o);
-        refreshAll();
-        showToast("Order placed: " + p.getName() + " x" + qty);
+        o.setCreatedAt(System.currentTimeMillis());
+        o.setItems(items);
+
+        OrderDAO dao = orderDAO;
+        Thread.ofVirtual().name("checkout").start(() -> {
+            boolean saved = dao.placeOrder(o); // id comes from the journal
+            SwingUtilities.invokeLater(() -> {
+                showToast(saved ? placedMessage : "Order could not be saved, please try again.");
+                done.accept(saved);
+            });
+        });
     }
 
     private void logout() {
@@ -704,7 +869,10 @@ right.add(searchBox);
 
     // ---------------- Refresh and stats ----------------
 
+    // Full refresh after (re)loading data; single changes go through productsChanged/ordersChanged
     private void refreshAll() {
+        DashboardRefreshEvent event = DashboardRefreshEvent.start("refreshAll");
+
         // refresh product table
         if (productTableModel == null) {
             productTableModel = new ProductTableModel(products);
@@ -717,30 +885,50 @@ right.add(searchBox);
         // refresh order table
         if (orderTableModel == null) {
             orderTableModel = new OrderTableModel(orders);
+        } else if (orderTableModel.getOrders() == orders) {
+            orderTableModel.ordersAppended(); // only the new rows
         } else {
-            orderTableModel.orderList = orders;
-            orderTableModel.fireTableDataChanged();
-        }
-
-        // update stat labels
-        int totalProducts = products.size();
-        int totalOrders = orders.size();
-        int pending = totalOrders; // placeholder
-        double revenue = 0.0;
-        for (Order o : orders) {
-            for (OrderItem it : o.getItems()) {
-                if (it.getProduct() != null) revenue += it.getQuantity() * it.getProduct().getPrice();
-            }
+            orderTableModel.setOrders(orders);
         }
 
-        totalProductsLabel.setText("<html><div style='text-align:left;'><div style='font-size:12px;color:#8a6f77;'>Total Products</div><div style='font-size:18px;color:#2b2430;'><b>" + totalProducts + "</b></div></div></html>");
-        totalOrdersLabel.setText("<html><div style='text-align:left;'><div style='font-size:12px;color:#8a6f77;'>Total Orders</div><div style='font-size:18px;color:#2b2430;'><b>" + totalOrders + "</b></div></div></html>");
-        pendingOrdersLabel.setText("<html><div style='text-align:left;'><div style='font-size:12px;color:#8a6f77;'>Pending Orders</div><div style='font-size:18px;color:#2b2430;'><b>" + pending + "</b></div></div></html>");
-        revenueLabel.setText("<html><div style='text-align:left;'><div style='font-size:12px;color:#8a6f77;'>Revenue</div><div style='font-size:18px;color:#2b2430;'><b>৳" + String.format("%.2f", revenue) + "</b></div></div></html>");
+        stats.reset(products, orders);
+        updateStatCards();
 
         // repaint charts (they read products/orders for data)
         contentCards.revalidate();
         contentCards.repaint();
+        event.finish(products.size(), orders.size(), orderTableModel.getRowCount());
+    }
+
+    // productListener already updated 'products', so the table only needs to be told
+    private void productsChanged() {
+        if (productTableModel != null) productTableModel.fireTableDataChanged();
+        updateStatCards();
+    }
+
+    // Orders were appended to 'orders' and reported to stats
+    private void ordersChanged() {
+        if (orderTableModel != null) orderTableModel.ordersAppended();
+        updateStatCards();
+        contentCards.repaint();
+    }
+
+    // O(1): reads the running totals; skipped when nothing changed since the last update
+    private void updateStatCards() {
+        if (totalProductsLabel == null || stats.getVersion() == shownStatsVersion) return;
+        shownStatsVersion = stats.getVersion();
+
+        int totalOrders = stats.getOrderCount();
+        int pending = totalOrders; // placeholder
+        totalProductsLabel.setText(statHtml("Total Products", String.valueOf(stats.getProductCount())));
+        totalOrdersLabel.setText(statHtml("Total Orders", String.valueOf(totalOrders)));
+        pendingOrdersLabel.setText(statHtml("Pending Orders", String.valueOf(pending)));
+        revenueLabel.setText(statHtml("Revenue", "৳" + String.format("%.2f", stats.getRevenue())));
+    }
+
+    private static String statHtml(String title, String value) {
+        return "<html><div style='text-align:left;'><div style='font-size:12px;color:#8a6f77;'>" + title
+                + "</div><div style='font-size:18px;color:#2b2430;'><b>" + value + "</b></div></div></html>";
     }
 
     // Simple transient toast
@@ -787,43 +975,6 @@ t.start();
         }
     }
 
-    private class OrderTableModel extends AbstractTableModel {
-        private final String[] cols = {"Order ID", "User", "Product", "Qty", "Total"};
-        private List<Order> orderList;
-
-        public OrderTableModel(List<Order> list) { this.orderList = (list != null) ? list : new ArrayList<>(); }
-
-        @Override
-        public int getRowCount() {
-            int rows = 0;
-            for (Order o : orderList) rows += o.getItems().size();
-            return rows;
-        }
-
-        @Override public int getColumnCount() { return cols.length; }
-        @Override public String getColumnName(int col) { return cols[col]; }
-
-        @Override
-        public Object getValueAt(int rowIndex, int columnIndex) {
-            int idx = 0;
-            for (Order o : orderList) {
-                for (OrderItem it : o.getItems()) {
-                    if (idx == rowIndex) {
-                        switch (columnIndex) {
-                            case 0: return o.getId();
-                            case 1: return (o.getUser() != null ? o.getUser().getName() : "Unknown");
-                            case 2: return (it.getProduct() != null ? it.getProduct().getName() : "—");
-                            case 3: return it.getQuantity();
-                            case 4: return it.getQuantity() * (it.getProduct() != null ? it.getProduct().getPrice() : 0.0);
-                        }
-                    }
-                    idx++;
-                }
-            }
-            return null;
-        }
-    }
-
     // ----------------- RoundedPanel -----------------
 
     private static class RoundedPanel extends JPanel {
@@ -853,30 +1004,24 @@ t.start();
 
     /**
      * LineChartPanel - draws a smooth-ish line representing recent sales.
-     * Pulls data from products/orders lists (simple synthetic sample derived from orders).
+     * Reads daily revenue from the pre-aggregated sales series (7 buckets, no per-order work).
      */
     private class LineChartPanel extends JPanel {
+        private final double[] data = new double[7];
+
         public LineChartPanel() { setPreferredSize(new Dimension(200, 120)); setOpaque(false); }
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
+            ChartPaintEvent event = ChartPaintEvent.start("sales-7d");
             // Background lightly
             Graphics2D g2 = (Graphics2D) g.create();
             int w = getWidth(), h = getHeight();
             g2.setColor(new Color(255, 255, 255, 0));
             g2.fillRect(0, 0, w, h);
 
-            // sample data: sales for last 7 days computed from orders (naive)
-            double[] data = new double[7];
-            Calendar c = Calendar.getInstance();
-            for (Order o : orders) {
-                // map all orders to index based on days difference (naive recent only)
-                // we don't have timestamps in model here; so distribute randomly for demo
-                int idx = (int) (Math.abs(o.getId()) % 7);
-                double sum = 0;
-                for (OrderItem it : o.getItems()) sum += it.getQuantity() * (it.getProduct() != null ? it.getProduct().getPrice() : 0);
-                data[idx] += sum;
-            }
+            // sales for the last 7 days, today last
+            stats.getSales().daily(System.currentTimeMillis(), data);
 
             // If no orders, generate tiny dummy points so chart shows graceful baseline
             boolean empty = true;
@@ -909,44 +1054,44 @@ t.start();
             }
 
             g2.dispose();
+            event.finish(data.length, w, h);
         }
     }
 
     /**
-     * BarChartPanel - draws bars for revenue per day (synthetic).
+     * BarChartPanel - draws bars for revenue per hour over the last 24 hours.
      */
     private class BarChartPanel extends JPanel {
+        private final double[] vals = new double[24];
+
         public BarChartPanel() { setPreferredSize(new Dimension(200, 120)); setOpaque(false); }
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
+            ChartPaintEvent event = ChartPaintEvent.start("revenue-24h");
             Graphics2D g2 = (Graphics2D) g.create();
             int w = getWidth(), h = getHeight();
             int padding = 16;
             int graphW = w - padding*2;
             int graphH = h - padding*2;
 
-            // sample 7 bars (use product prices or order totals)
-            double[] vals = new double[7];
-            for (int i = 0; i < vals.length; i++) vals[i] = (i + 1) * 15; // fallback
-            // compute from orders somewhat
-            for (Order o : orders) {
-                int idx = Math.abs(o.getId()) % 7;
-                double sum = 0;
-                for (OrderItem it : o.getItems()) sum += it.getQuantity() * (it.getProduct() != null ? it.getProduct().getPrice() : 0);
-                vals[idx] += sum;
-            }
-            double max = Arrays.stream(vals).max().orElse(1);
+            // revenue for the last 24 hours, current hour last
+            stats.getSales().hourly(System.currentTimeMillis(), vals);
+            double max = 0;
+            for (double v : vals) max = Math.max(max, v);
+            if (max == 0) max = 1; // no sales yet: flat baseline
 
-            int barWidth = graphW / vals.length - 8;
+            int gap = 3;
+            int barWidth = Math.max(1, graphW / vals.length - gap);
             for (int i = 0; i < vals.length; i++) {
-                int x = padding + i * (barWidth + 8);
+                int x = padding + i * (barWidth + gap);
                 int barH = (int) ((vals[i] / max) * (graphH - 16));
                 int y = padding + (graphH - barH);
                 g2.setColor(new Color(255, 160, 185));
                 g2.fillRoundRect(x, y, barWidth, barH, 8, 8);
             }
             g2.dispose();
+            event.finish(vals.length, w, h);
         }
     }
 
@@ -958,6 +1103,7 @@ t.start();
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
+            ChartPaintEvent event = ChartPaintEvent.start("order-status");
             Graphics2D g2 = (Graphics2D) g.create();
             int w = getWidth(), h = getHeight();
             int size = Math.min(w, h) - 32;
@@ -993,6 +1139,7 @@ t.start();
             g2.fillArc(cx - size/2, cy - size/2, arcSize, arcSize, (int)Math.round(start), (int)Math.round(angle));
 
             g2.dispose();
+            event.finish(orders.size(), w, h);
         }
     }
 
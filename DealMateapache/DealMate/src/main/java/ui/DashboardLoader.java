@@ -0,0 +1,73 @@
+package ui;
+
+import dao.OrderDAO;
+import dao.ProductDAO;
+import dao.Repositories;
+import dao.UserDAO;
+import model.Order;
+import model.Product;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Opens the stores and reads the dashboard data off the EDT.
+ *
+ * Each load runs on its own virtual thread (CSV parse, journal recovery and
+ * user file read all block on disk) and hands the result to the EDT as a
+ * Snapshot. If a newer load was started in the meantime the older
+ * result is dropped, so the UI never goes back to stale data.
+ *
+ * The caller's attach callback runs once the stores are open but before they
+ * are read, so change listeners it registers see every change the snapshot
+ * might miss (and possibly some it already has; listeners must tolerate that).
+ */
+public class DashboardLoader {
+
+    private static final ExecutorService LOADERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-loader-", 0).factory());
+
+    /** What one load produced. products and orders are the receiver's own copies, taken when the load ran. */
+    public record Snapshot(ProductDAO productDAO, OrderDAO orderDAO, UserDAO userDAO,
+                           List<Product> products, List<Order> orders, long loadNanos) {}
+
+    private final AtomicLong generation = new AtomicLong();
+
+    // Starts a load; attach runs on the loader thread, onLoaded / onError on the EDT. Stores come from (and are opened in) repos.
+    public void load(Repositories repos, BiConsumer<ProductDAO, OrderDAO> attach,
+                     Consumer<Snapshot> onLoaded, Consumer<Throwable> onError) {
+        long gen = generation.incrementAndGet();
+        LOADERS.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                ProductDAO p = repos.products();
+                OrderDAO o = repos.orders();
+                UserDAO u = repos.users();
+                attach.accept(p, o);
+                // Both getters already return copies
+                Snapshot s = new Snapshot(p, o, u,
+                        p.getAllProducts(),
+                        o.getAllOrders(),
+                        System.nanoTime() - start);
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generation.get()) onLoaded.accept(s);
+                });
+            } catch (Throwable t) {
+                t.printStackTrace();
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generation.get()) onError.accept(t);
+                });
+            }
+        });
+    }
+
+    // Drops the result of any load still running (e.g. the window is closing)
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,58 @@
+package ui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a dashboard data load or full refresh.
+ *
+ * "loadData" spans from the request to the snapshot being applied on the
+ * EDT, so it includes the store I/O (see dao.PersistenceEvent, recorded on
+ * the loader thread in the same window). "refreshAll" is the EDT part only.
+ */
+@Name("dealmate.DashboardRefresh")
+@Label("Dashboard Refresh")
+@Category({"DealMate", "UI"})
+@Description("Loading or re-applying the dashboard's products and orders")
+public class DashboardRefreshEvent extends Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Products")
+    public long products;
+
+    @Label("Orders")
+    public long orders;
+
+    @Label("Order Rows")
+    @Description("Rows in the orders table")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+
+    public static DashboardRefreshEvent start(String phase) {
+        DashboardRefreshEvent e = new DashboardRefreshEvent();
+        e.phase = phase;
+        e.begin();
+        return e;
+    }
+
+    public void finish(long products, long orders, long rows) {
+        end();
+        if (!shouldCommit()) return;
+        this.products = products;
+        this.orders = orders;
+        this.rows = rows;
+        commit();
+    }
+
+    public void fail() {
+        failed = true;
+        finish(0, 0, 0);
+    }
+}
@@ -1,8 +1,12 @@
 package ui;
+import dao.Repositories;
 import javax.swing.SwingUtilities;
 
 public class DealMateApp {
     public static void main(String[] args) {
+        // Report events that block the EDT; -Ddealmate.edt.thresholdMs=0 turns it off
+        EdtWatchdog.install(Long.getLong("dealmate.edt.thresholdMs", 100));
+        Repositories.get().preload(); // open the stores while the front page is up
         SwingUtilities.invokeLater(() -> new FrontPage());
     }
 }
@@ -0,0 +1,108 @@
+package ui;
+
+import dao.Metrics;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.HierarchyEvent;
+import java.util.List;
+
+/**
+ * Live view of the metrics registry: one row per counter, gauge or timer,
+ * re-read every second while the panel is on screen (the timer stops when
+ * another card is shown). The full dump can be copied as JSON or in the
+ * Prometheus text format, and the EDT watchdog's stall report as text.
+ */
+public class DiagnosticsPanel extends JPanel {
+
+    private static final int REFRESH_MS = 1000;
+
+    private final SampleModel model = new SampleModel();
+    private final Timer refresh = new Timer(REFRESH_MS, e -> model.setSamples(Metrics.samples()));
+
+    public DiagnosticsPanel(Font font) {
+        super(new BorderLayout(0, 8));
+        setOpaque(false);
+
+        JTable table = new JTable(model);
+        table.setFont(font);
+        table.setRowHeight(24);
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(320);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setBorder(BorderFactory.createEmptyBorder());
+        add(scroll, BorderLayout.CENTER);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        buttons.setOpaque(false);
+        buttons.add(copyButton("Copy JSON", font, true));
+        buttons.add(copyButton("Copy Prometheus", font, false));
+        if (EdtWatchdog.get() != null) {
+            JButton edt = new JButton("Copy EDT report");
+            edt.setFont(font);
+            edt.setCursor(new Cursor(Cursor.HAND_CURSOR));
+            edt.addActionListener(e -> Toolkit.getDefaultToolkit().getSystemClipboard()
+                    .setContents(new StringSelection(EdtWatchdog.get().report()), null));
+            buttons.add(edt);
+        }
+        add(buttons, BorderLayout.SOUTH);
+
+        // Only poll while visible
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0) return;
+            if (isShowing()) {
+                model.setSamples(Metrics.samples());
+                refresh.start();
+            } else {
+                refresh.stop();
+            }
+        });
+    }
+
+    private JButton copyButton(String text, Font font, boolean json) {
+        JButton b = new JButton(text);
+        b.setFont(font);
+        b.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        b.addActionListener(e -> {
+            String dump = json ? Metrics.toJson() : Metrics.toPrometheus();
+            Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(dump), null);
+        });
+        return b;
+    }
+
+    private static final class SampleModel extends AbstractTableModel {
+        private static final String[] COLS = {"Metric", "Count", "Value / mean ms", "p50 ms", "p99 ms", "p999 ms", "max ms"};
+
+        private List<Metrics.Sample> samples = List.of();
+
+        void setSamples(List<Metrics.Sample> next) {
+            boolean sameRows = next.size() == samples.size();
+            samples = next;
+            // Same metrics as last time (the usual case): repaint values, keep the selection
+            if (sameRows && !next.isEmpty()) fireTableRowsUpdated(0, next.size() - 1);
+            else fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return samples.size(); }
+        @Override public int getColumnCount() { return COLS.length; }
+        @Override public String getColumnName(int col) { return COLS[col]; }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            Metrics.Sample s = samples.get(row);
+            boolean timer = s.type() == Metrics.Type.TIMER;
+            switch (col) {
+                case 0: return s.name();
+                case 1: return s.type() == Metrics.Type.GAUGE ? "" : String.valueOf(s.count());
+                case 2: return timer ? String.format("%.3f", s.value()) : String.valueOf((long) s.value());
+                case 3: return timer ? String.format("%.3f", s.p50()) : "";
+                case 4: return timer ? String.format("%.3f", s.p99()) : "";
+                case 5: return timer ? String.format("%.3f", s.p999()) : "";
+                case 6: return timer ? String.format("%.3f", s.max()) : "";
+                default: return null;
+            }
+        }
+    }
+}
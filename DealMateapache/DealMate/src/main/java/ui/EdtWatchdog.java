@@ -0,0 +1,196 @@
+package ui;
+
+import dao.LatencyHistogram;
+import dao.Metrics;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reports the event dispatch thread being blocked.
+ *
+ * A queue pushed on top of the system event queue stamps the start and end
+ * of every event it dispatches. A daemon thread checks the stamp every
+ * threshold/4; once the EDT has been inside one event for longer than the
+ * threshold it captures the EDT's stack. When the event finally returns, the
+ * stall is logged and counted under the code that caused it: the deepest
+ * DealMate frame (usually the file read or write) together with the
+ * outermost one (the listener that started it).
+ *
+ * Nested event loops (modal dialogs) dispatch through the same queue and
+ * keep moving the stamp, so a dialog left open is not mistaken for a stall.
+ *
+ * report() summarises the offenders, worst first; it is also printed when
+ * the application exits. Stalls feed the dealmate_edt_stall_seconds timer.
+ */
+public final class EdtWatchdog {
+
+    private static final String[] APP_PACKAGES = {"ui.", "dao.", "model.", "tools."};
+    private static final int STACK_DEPTH = 24;
+
+    private static final LatencyHistogram STALLS = Metrics.timer("dealmate_edt_stall_seconds", "EDT blocked inside one event longer than the watchdog threshold");
+
+    private static volatile EdtWatchdog installed;
+
+    private final long thresholdNanos;
+    private final Map<String, Offender> offenders = new ConcurrentHashMap<>();
+    private final AtomicReference<Capture> pending = new AtomicReference<>();
+
+    // Written by the EDT only
+    private volatile Thread edt;
+    private volatile long lastProgress;   // nanoTime of the latest dispatch start or end
+    private volatile long progressSeq;    // bumped on every dispatch start and end
+    private volatile int depth;           // > 0 while an event is being dispatched
+
+    private record Capture(long seq, StackTraceElement[] stack) {}
+
+    private static final class Offender {
+        final String where;
+        int count;
+        long totalNanos, maxNanos;
+        StackTraceElement[] worstStack;
+
+        Offender(String where) { this.where = where; }
+    }
+
+    private EdtWatchdog(long thresholdMs) {
+        this.thresholdNanos = thresholdMs * 1_000_000L;
+    }
+
+    /** Starts watching the EDT; a threshold of 0 or less turns the watchdog off. */
+    public static synchronized void install(long thresholdMs) {
+        if (installed != null || thresholdMs <= 0) return;
+        EdtWatchdog w = new EdtWatchdog(thresholdMs);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(w.new WatchedQueue());
+
+        Thread monitor = new Thread(w::monitor, "edt-watchdog");
+        monitor.setDaemon(true);
+        monitor.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!w.offenders.isEmpty()) System.err.print(w.report());
+        }, "edt-watchdog-report"));
+        installed = w;
+    }
+
+    // The installed watchdog, or null
+    public static EdtWatchdog get() {
+        return installed;
+    }
+
+    // ---------------- Detection ----------------
+
+    private final class WatchedQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            edt = Thread.currentThread();
+            progress(+1);
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long blocked = System.nanoTime() - lastProgress;
+                if (blocked >= thresholdNanos) stalled(blocked);
+                progress(-1);
+            }
+        }
+    }
+
+    private void progress(int depthChange) {
+        depth += depthChange;
+        lastProgress = System.nanoTime();
+        progressSeq++;
+    }
+
+    private void monitor() {
+        long period = Math.max(1, thresholdNanos / 4 / 1_000_000L);
+        while (true) {
+            try {
+                Thread.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long seq = progressSeq;
+            Thread t = edt;
+            if (t == null || depth <= 0 || System.nanoTime() - lastProgress < thresholdNanos) continue;
+            Capture c = pending.get();
+            if (c != null && c.seq() == seq) continue; // this stall is already captured
+            StackTraceElement[] stack = t.getStackTrace();
+            if (seq == progressSeq) pending.set(new Capture(seq, stack)); // EDT still in the same event
+        }
+    }
+
+    // On the EDT, as the blocking event returns
+    private void stalled(long nanos) {
+        STALLS.record(nanos);
+        Capture c = pending.getAndSet(null);
+        StackTraceElement[] stack = (c != null && c.seq() == progressSeq) ? c.stack() : null;
+        String where = stack != null ? where(stack) : "(returned before it could be sampled)";
+
+        Offender o = offenders.computeIfAbsent(where, Offender::new);
+        synchronized (o) {
+            o.count++;
+            o.totalNanos += nanos;
+            if (nanos >= o.maxNanos) {
+                o.maxNanos = nanos;
+                if (stack != null) o.worstStack = stack;
+            }
+        }
+        System.err.printf("EDT blocked %d ms in %s%n", nanos / 1_000_000, where);
+    }
+
+    // Deepest app frame, and the outermost one if that is a different method
+    private static String where(StackTraceElement[] stack) {
+        StackTraceElement deepest = null, outermost = null;
+        for (StackTraceElement f : stack) {
+            if (!isApp(f)) continue;
+            if (deepest == null) deepest = f;
+            outermost = f;
+        }
+        if (deepest == null) return stack.length > 0 ? stack[0].toString() : "(no stack)";
+        String key = deepest.getClassName() + "." + deepest.getMethodName();
+        if (outermost != deepest) key += " <- " + outermost.getClassName() + "." + outermost.getMethodName();
+        return key;
+    }
+
+    private static boolean isApp(StackTraceElement f) {
+        String cls = f.getClassName();
+        if (cls.startsWith(EdtWatchdog.class.getName())) return false;
+        for (String p : APP_PACKAGES) if (cls.startsWith(p)) return true;
+        return false;
+    }
+
+    // ---------------- Report ----------------
+
+    public String report() {
+        List<Offender> list = new ArrayList<>(offenders.values());
+        list.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+
+        long count = 0, total = 0, worst = 0;
+        for (Offender o : list) {
+            count += o.count;
+            total += o.totalNanos;
+            worst = Math.max(worst, o.maxNanos);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("EDT stalls over %d ms: %d (total %d ms, worst %d ms)%n",
+                thresholdNanos / 1_000_000, count, total / 1_000_000, worst / 1_000_000));
+        if (list.isEmpty()) return sb.toString();
+
+        sb.append(String.format("%7s %10s %8s  %s%n", "count", "total ms", "max ms", "where"));
+        for (Offender o : list) {
+            synchronized (o) {
+                sb.append(String.format("%7d %10d %8d  %s%n", o.count, o.totalNanos / 1_000_000, o.maxNanos / 1_000_000, o.where));
+                if (o.worstStack == null) continue;
+                for (int i = 0; i < o.worstStack.length && i < STACK_DEPTH; i++) {
+                    sb.append("            at ").append(o.worstStack[i]).append(System.lineSeparator());
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package ui;
+
+import dao.ProductDAO;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Search-as-you-type for a product list.
+ *
+ * Keystrokes restart a short debounce timer; only when typing pauses is a
+ * query started, on a virtual thread. Starting a query cancels the one in
+ * flight (the index stops ranking once the thread is interrupted), and every
+ * result is tagged with the query's generation so a slow, stale answer can
+ * never overwrite a newer one.
+ *
+ * One search returns the ranked ids of every hit (up to MAX_RESULTS), which
+ * gives the total at once; the PagedProductListModel resolves products only
+ * for the rows that are actually shown.
+ *
+ * All methods are called on the EDT; results are delivered there too.
+ */
+public class LiveSearch {
+
+    public static final int DEBOUNCE_MS = 150;
+    public static final int MAX_RESULTS = 5000;
+
+    private static final ExecutorService SEARCHERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("product-search-", 0).factory());
+
+    /** Outcome of the current query. */
+    public record Status(String query, int count, boolean truncated) {}
+
+    private final Supplier<ProductDAO> dao;
+    private final PagedProductListModel results;
+    private final Consumer<Status> onStatus;
+    private final Timer debounce;
+
+    private String pending = "";
+    private String shown = "";    // query whose results are in the model
+    private long generation;
+    private Future<?> inFlight;
+
+    public LiveSearch(Supplier<ProductDAO> dao, PagedProductListModel results, Consumer<Status> onStatus) {
+        this.dao = dao;
+        this.results = results;
+        this.onStatus = onStatus;
+        debounce = new Timer(DEBOUNCE_MS, e -> run());
+        debounce.setRepeats(false);
+    }
+
+    // Typing: wait for a pause before searching
+    public void textChanged(String text) {
+        pending = text.trim();
+        debounce.restart();
+    }
+
+    // Enter / search icon: search right away
+    public void submitNow(String text) {
+        pending = text.trim();
+        debounce.stop();
+        shown = null; // run even if the text did not change
+        run();
+    }
+
+    public void cancel() {
+        debounce.stop();
+        generation++;
+        if (inFlight != null) inFlight.cancel(true);
+        inFlight = null;
+    }
+
+    private void run() {
+        String q = pending;
+        cancel();
+        if (q.equals(shown)) return; // back to what is on screen; just drop the stale query
+        long gen = generation;
+
+        if (q.isEmpty()) {
+            shown = q;
+            results.setIds(new int[0]);
+            onStatus.accept(new Status(q, 0, false));
+            return;
+        }
+        ProductDAO d = dao.get();
+        if (d == null) return; // still loading; the next keystroke or Enter retries
+
+        inFlight = SEARCHERS.submit(() -> {
+            int[] ids;
+            try {
+                ids = d.searchProductIds(q, MAX_RESULTS + 1);
+            } catch (CancellationException stale) {
+                return; // a newer query took over
+            }
+            boolean truncated = ids.length > MAX_RESULTS;
+            int[] shownIds = truncated ? Arrays.copyOf(ids, MAX_RESULTS) : ids;
+            publish(gen, () -> {
+                shown = q;
+                results.setIds(shownIds);
+                onStatus.accept(new Status(q, shownIds.length, truncated));
+            });
+        });
+    }
+
+    private void publish(long gen, Runnable r) {
+        SwingUtilities.invokeLater(() -> {
+            if (gen == generation) r.run();
+        });
+    }
+}
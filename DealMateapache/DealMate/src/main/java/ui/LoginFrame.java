@@ -2,6 +2,7 @@ package ui;
 
 import javax.swing.*;
 import java.awt.*;
+import dao.Repositories;
 import dao.UserDAO;
 import model.User;
 
@@ -61,7 +62,7 @@ public class LoginFrame extends JFrame {
             String password = new String(passwordField.getPassword());
             String selectedRole = (String) roleCombo.getSelectedItem();
 
-            UserDAO dao = new UserDAO();
+            UserDAO dao = Repositories.get().users();
             User user = dao.login(email, password);
 
             if (user != null) {
@@ -0,0 +1,50 @@
+package ui;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What CSVManager.loadOrders could not resolve, collected over the whole file
+ * so it can be reported once instead of per line.
+ */
+public class OrderLoadReport {
+
+    // referenced id -> number of order lines that referenced it
+    private final Map<Integer, Integer> missingProducts = new TreeMap<>();
+    private final Map<Integer, Integer> missingUsers = new TreeMap<>();
+    private int linesRead;
+    private int malformedLines;
+    private int droppedItems;
+
+    void lineRead() { linesRead++; }
+
+    void malformedLine() { malformedLines++; }
+
+    void missingProduct(int productId) {
+        missingProducts.merge(productId, 1, Integer::sum);
+        droppedItems++;
+    }
+
+    void missingUser(int userId) {
+        missingUsers.merge(userId, 1, Integer::sum);
+    }
+
+    public Map<Integer, Integer> getMissingProducts() { return missingProducts; }
+    public Map<Integer, Integer> getMissingUsers() { return missingUsers; }
+    public int getLinesRead() { return linesRead; }
+    public int getMalformedLines() { return malformedLines; }
+    public int getDroppedItems() { return droppedItems; }
+
+    public boolean isClean() {
+        return missingProducts.isEmpty() && missingUsers.isEmpty() && malformedLines == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Order load: " + linesRead + " lines, "
+                + malformedLines + " malformed, "
+                + droppedItems + " items dropped; "
+                + "unknown product ids " + missingProducts.keySet() + ", "
+                + "unknown user ids " + missingUsers.keySet();
+    }
+}
@@ -0,0 +1,94 @@
+package ui;
+
+import model.Order;
+import model.OrderItem;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One row per order line. Rows are resolved through a flattened index
+ * (rowOrder[row], rowItem[row]) so getRowCount/getValueAt are O(1).
+ * Appending orders extends the index and fires row-insert events only for
+ * the new rows.
+ */
+public class OrderTableModel extends AbstractTableModel {
+    private final String[] cols = {"Order ID", "User", "Product", "Qty", "Total"};
+    private List<Order> orderList;
+
+    private int[] rowOrder = new int[64];
+    private int[] rowItem = new int[64];
+    private int rowCount;
+    private int indexedOrders;
+
+    public OrderTableModel(List<Order> list) {
+        this.orderList = (list != null) ? list : new ArrayList<>();
+        indexFrom(0);
+    }
+
+    // Replace the whole list (full refresh)
+    public void setOrders(List<Order> list) {
+        orderList = (list != null) ? list : new ArrayList<>();
+        rowCount = 0;
+        indexedOrders = 0;
+        indexFrom(0);
+        fireTableDataChanged();
+    }
+
+    public List<Order> getOrders() { return orderList; }
+
+    // Append to the backing list and show the new rows
+    public void addOrder(Order o) {
+        orderList.add(o);
+        ordersAppended();
+    }
+
+    // The backing list grew at the end: index just the new orders
+    public void ordersAppended() {
+        if (orderList.size() < indexedOrders) { setOrders(orderList); return; }
+        int first = rowCount;
+        indexFrom(indexedOrders);
+        if (rowCount > first) fireTableRowsInserted(first, rowCount - 1);
+    }
+
+    private void indexFrom(int fromOrder) {
+        for (int oi = fromOrder; oi < orderList.size(); oi++) {
+            int items = orderList.get(oi).getItems().size();
+            ensureCapacity(rowCount + items);
+            for (int ii = 0; ii < items; ii++) {
+                rowOrder[rowCount] = oi;
+                rowItem[rowCount] = ii;
+                rowCount++;
+            }
+        }
+        indexedOrders = orderList.size();
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= rowOrder.length) return;
+        int cap = Math.max(rows, rowOrder.length * 2);
+        rowOrder = Arrays.copyOf(rowOrder, cap);
+        rowItem = Arrays.copyOf(rowItem, cap);
+    }
+
+    @Override public int getRowCount() { return rowCount; }
+    @Override public int getColumnCount() { return cols.length; }
+    @Override public String getColumnName(int col) { return cols[col]; }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) return null;
+        Order o = orderList.get(rowOrder[rowIndex]);
+        OrderItem it = o.getItems().get(rowItem[rowIndex]);
+        switch (columnIndex) {
+            case 0: return o.getId();
+            case 1: return (o.getUser() != null ? o.getUser().getName() : "Unknown");
+            case 2: return (it.getProduct() != null ? it.getProduct().getName() : "—");
+            case 3: return it.getQuantity();
+            case 4: return it.getQuantity() * (it.getProduct() != null ? it.getProduct().getPrice() : 0.0);
+            default: return null;
+        }
+    }
+}
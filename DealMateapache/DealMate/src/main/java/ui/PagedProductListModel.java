@@ -0,0 +1,61 @@
+package ui;
+
+import model.Product;
+
+import javax.swing.AbstractListModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * List model over a ranked array of product ids.
+ *
+ * Products are looked up a page at a time, only when the JList asks for a
+ * row, and only the most recently used pages are kept. What is held in
+ * memory therefore follows the viewport, not the number of hits.
+ * A null row means the product was deleted after the search ran.
+ */
+public class PagedProductListModel extends AbstractListModel<Product> {
+
+    static final int PAGE_SIZE = 100;
+    private static final int CACHED_PAGES = 8;
+
+    private final IntFunction<Product> lookup;
+    private int[] ids = new int[0];
+
+    // access-ordered: the eldest entry is the least recently shown page
+    private final LinkedHashMap<Integer, Product[]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Product[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    public PagedProductListModel(IntFunction<Product> lookup) {
+        this.lookup = lookup;
+    }
+
+    public void setIds(int[] ranked) {
+        int old = ids.length;
+        ids = new int[0];
+        pages.clear();
+        if (old > 0) fireIntervalRemoved(this, 0, old - 1);
+        ids = ranked;
+        if (ids.length > 0) fireIntervalAdded(this, 0, ids.length - 1);
+    }
+
+    @Override public int getSize() { return ids.length; }
+
+    @Override
+    public Product getElementAt(int index) {
+        int page = index / PAGE_SIZE;
+        Product[] rows = pages.get(page);
+        if (rows == null) {
+            int from = page * PAGE_SIZE;
+            rows = new Product[Math.min(PAGE_SIZE, ids.length - from)];
+            for (int i = 0; i < rows.length; i++) rows[i] = lookup.apply(ids[from + i]);
+            pages.put(page, rows);
+        }
+        return rows[index - page * PAGE_SIZE];
+    }
+}
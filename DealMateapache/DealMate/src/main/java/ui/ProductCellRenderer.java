@@ -0,0 +1,40 @@
+package ui;
+
+import model.Product;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+
+/**
+ * One label, reused for every visible row of a product list.
+ */
+public class ProductCellRenderer extends DefaultListCellRenderer {
+
+    private final Color stripe = new Color(255, 247, 249);
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+        super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+        if (value instanceof Product p) {
+            setText(p.getName() + "   ৳" + String.format("%.2f", p.getPrice())
+                    + "   (#" + p.getId() + ", seller " + p.getSellerId() + ")");
+        } else if (value == null) {
+            setText("(no longer available)");
+        }
+        if (!isSelected && index % 2 == 1) setBackground(stripe);
+        setBorder(new EmptyBorder(4, 10, 4, 10));
+        return this;
+    }
+
+    // Fixed cell size: JList can then lay out any number of rows without measuring them.
+    // Cells still stretch to the list's width in a vertical list.
+    public static <T> JList<T> install(JList<T> list) {
+        list.setCellRenderer(new ProductCellRenderer());
+        list.setFixedCellHeight(28);
+        list.setFixedCellWidth(240);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        return list;
+    }
+}
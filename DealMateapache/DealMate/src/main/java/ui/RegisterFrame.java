@@ -2,6 +2,7 @@ package ui;
 
 import javax.swing.*;
 import java.awt.*;
+import dao.Repositories;
 import dao.UserDAO;
 import model.User;
 
@@ -48,7 +49,7 @@ public class RegisterFrame extends JFrame {
                 return;
             }
 
-            UserDAO dao = new UserDAO();
+            UserDAO dao = Repositories.get().users();
             User user = new User();
             user.setName(name);
             user.setEmail(email);
@@ -61,7 +62,7 @@ public class RegisterFrame extends JFrame {
                 new LoginFrame().setVisible(true);
                 dispose();
             } else {
-                JOptionPane.showMessageDialog(this, "Email already exists!");
+                JOptionPane.showMessageDialog(this, "Email already exists, or the account could not be saved!");
             }
         });
 
@@ -0,0 +1,108 @@
+package ui;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Rolling revenue per day and per hour, filled as orders come in.
+ *
+ * Each resolution is a small ring of buckets addressed by epoch day / epoch
+ * hour (local time). A bucket remembers which day or hour it holds, so stale
+ * slots read as zero and get reset on reuse; nothing has to be swept when
+ * the clock moves on. Recording an order and reading a window both cost
+ * O(buckets), independent of how many orders exist.
+ *
+ * Orders without a timestamp (createdAt == 0) are not placed on the time
+ * axis. Not thread-safe; owned by DashboardAggregates on the EDT.
+ */
+public class SalesSeries {
+
+    public static final int DAYS = 31;
+    public static final int HOURS = 48;
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    private final Ring days = new Ring(DAYS);
+    private final Ring hours = new Ring(HOURS);
+    private final ZoneId zone;
+
+    public SalesSeries() {
+        this(ZoneId.systemDefault());
+    }
+
+    public SalesSeries(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public void record(long createdAt, double amount) {
+        if (createdAt <= 0) return;
+        days.add(dayOf(createdAt), amount);
+        hours.add(hourOf(createdAt), amount);
+    }
+
+    public void clear() {
+        days.clear();
+        hours.clear();
+    }
+
+    /**
+     * Revenue for the last out.length days, oldest first, today last.
+     * Fills the caller's array so a repaint allocates nothing.
+     */
+    public double[] daily(long now, double[] out) {
+        return days.window(dayOf(now), out);
+    }
+
+    /** Revenue for the last out.length hours, oldest first, the current hour last. */
+    public double[] hourly(long now, double[] out) {
+        return hours.window(hourOf(now), out);
+    }
+
+    private long dayOf(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    // Hours follow the zone's offset at that instant, so they line up with local clock hours
+    private long hourOf(long millis) {
+        int offset = zone.getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+        return Math.floorDiv(millis + offset * 1000L, HOUR_MS);
+    }
+
+    private static final class Ring {
+        private final long[] keys;
+        private final double[] values;
+
+        Ring(int size) {
+            keys = new long[size];
+            values = new double[size];
+            clear();
+        }
+
+        void add(long key, double amount) {
+            int i = (int) Math.floorMod(key, (long) keys.length);
+            if (keys[i] != key) {
+                if (keys[i] > key) return; // older than the ring's reach
+                keys[i] = key;
+                values[i] = 0;
+            }
+            values[i] += amount;
+        }
+
+        double[] window(long last, double[] out) {
+            int n = Math.min(out.length, keys.length);
+            Arrays.fill(out, 0);
+            for (int k = 0; k < n; k++) {
+                long key = last - (n - 1 - k);
+                int i = (int) Math.floorMod(key, (long) keys.length);
+                out[out.length - n + k] = keys[i] == key ? values[i] : 0;
+            }
+            return out;
+        }
+
+        void clear() {
+            Arrays.fill(keys, Long.MIN_VALUE);
+            Arrays.fill(values, 0);
+        }
+    }
+}
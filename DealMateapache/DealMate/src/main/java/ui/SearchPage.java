@@ -4,30 +4,32 @@ import javax.swing.*;
 import java.awt.*;
 import dao.ProductDAO;
 import model.Product;
-import java.util.List;
 
+// Results are a virtual list: one renderer, rows resolved page by page as they scroll into view.
+// Shows every hit, where the dashboard's live search stops at LiveSearch.MAX_RESULTS.
 public class SearchPage extends JFrame {
 
-    public SearchPage(String query) {
+    // dao: the catalog to search, normally the dashboard's
+    public SearchPage(String query, ProductDAO dao) {
         setTitle("Search Results for: " + query);
         setSize(800, 600);
         setLocationRelativeTo(null);
 
-        JPanel resultPanel = new JPanel();
-        resultPanel.setLayout(new BoxLayout(resultPanel, BoxLayout.Y_AXIS));
-
-        ProductDAO dao = new ProductDAO();
-        List<Product> products = dao.searchProducts(query);
-
-        if (products.isEmpty()) {
-            resultPanel.add(new JLabel("No products found!"));
-        } else {
-            for (Product p : products) {
-                resultPanel.add(new JLabel("▶ " + p.getName() + " - $" + p.getPrice()));
-            }
-        }
-
-        add(new JScrollPane(resultPanel));
+        JLabel status = new JLabel("Searching...");
+        status.setBorder(BorderFactory.createEmptyBorder(6, 10, 6, 10));
+        add(status, BorderLayout.NORTH);
+
+        PagedProductListModel model = new PagedProductListModel(dao::getProduct);
+        JList<Product> list = ProductCellRenderer.install(new JList<>(model));
+        add(new JScrollPane(list), BorderLayout.CENTER);
+
+        // The search (and the index build on the first one) stays off the EDT
+        Thread.ofVirtual().name("search-page").start(() -> {
+            int[] ids = dao.searchProductIds(query, Integer.MAX_VALUE);
+            SwingUtilities.invokeLater(() -> {
+                model.setIds(ids);
+                status.setText(ids.length == 0 ? "No products found!" : ids.length + " products found");
+            });
+        });
     }
 }
-
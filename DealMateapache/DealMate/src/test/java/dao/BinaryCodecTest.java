@@ -0,0 +1,173 @@
+package dao;
+
+import model.Order;
+import model.OrderItem;
+import model.Product;
+import model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+
+    @TempDir
+    Path dir;
+
+    private static Order order() {
+        Order o = new Order(12, new User(3, "Ann", "ann@x.com", "secret", "Buyer"));
+        o.setCreatedAt(1_700_000_123_456L);
+        o.addItem(new OrderItem(new Product(5, "Lamp", 19.99, 2), 3));
+        o.addItem(new OrderItem(null, 1));
+        return o;
+    }
+
+    @Test
+    void usersRoundTrip() throws IOException {
+        Path file = dir.resolve("users.dat");
+        List<User> users = List.of(
+                new User(1, "Ann", "ann@x.com", "pw", "Buyer"),
+                new User(2, "Bø Ünïcode", "b@x.com", null, "Seller"));
+        BinaryCodec.writeUsers(file, users);
+
+        assertTrue(BinaryCodec.isCodecFile(file));
+        List<User> read = BinaryCodec.readUsers(file);
+        assertEquals(2, read.size());
+        assertEquals("Bø Ünïcode", read.get(1).getName());
+        assertNull(read.get(1).getPassword());
+        assertEquals("pw", read.get(0).getPassword());
+        assertEquals(2, read.get(1).getId());
+    }
+
+    @Test
+    void productsRoundTrip() throws IOException {
+        Path file = dir.resolve("products.dat");
+        BinaryCodec.writeProducts(file, List.of(new Product(7, "Desk, oak", 149.5, 4)));
+
+        Product p = BinaryCodec.readProducts(file).get(0);
+        assertEquals(7, p.getId());
+        assertEquals("Desk, oak", p.getName());
+        assertEquals(149.5, p.getPrice());
+        assertEquals(4, p.getSellerId());
+    }
+
+    @Test
+    void ordersRoundTripWithoutThePassword() throws IOException {
+        Path file = dir.resolve("orders.dat");
+        BinaryCodec.writeOrders(file, List.of(order(), new Order()));
+
+        List<Order> read = BinaryCodec.readOrders(file);
+        assertEquals(2, read.size());
+        assertOrder(read.get(0));
+        assertNull(read.get(1).getUser());
+        assertTrue(read.get(1).getItems().isEmpty());
+    }
+
+    @Test
+    void readingTheWrongRecordTypeFails() throws IOException {
+        Path file = dir.resolve("users.dat");
+        BinaryCodec.writeUsers(file, List.of(new User(1, "Ann", "ann@x.com", "pw", "Buyer")));
+        assertThrows(IOException.class, () -> BinaryCodec.readProducts(file));
+    }
+
+    @Test
+    void singleOrderRoundTrip() throws IOException {
+        byte[] payload = BinaryCodec.encodeOrder(order());
+        assertEquals(BinaryCodec.SCHEMA_VERSION, payload[0]);
+        assertOrder(BinaryCodec.decodeOrder(ByteBuffer.wrap(payload)));
+    }
+
+    @Test
+    void unknownOrderVersionIsRejected() {
+        byte[] payload = BinaryCodec.encodeOrder(order());
+        payload[0] = (byte) (BinaryCodec.SCHEMA_VERSION + 1);
+        assertThrows(IOException.class, () -> BinaryCodec.decodeOrder(ByteBuffer.wrap(payload)));
+        payload[0] = 0;
+        assertThrows(IOException.class, () -> BinaryCodec.decodeOrder(ByteBuffer.wrap(payload)));
+    }
+
+    @Test
+    void truncatedFilesReadAsIOException() throws IOException {
+        Path users = dir.resolve("users.dat");
+        BinaryCodec.writeUsers(users, List.of(new User(1, "Ann", "ann@x.com", "pw", "Buyer")));
+        Path products = dir.resolve("products.dat");
+        BinaryCodec.writeProducts(products, List.of(new Product(7, "Desk", 149.5, 4)));
+        Path orders = dir.resolve("orders.dat");
+        BinaryCodec.writeOrders(orders, List.of(order()));
+
+        for (Path file : List.of(users, products, orders)) {
+            byte[] bytes = Files.readAllBytes(file);
+            for (int cut = 12; cut < bytes.length; cut++) {
+                Files.write(file, Arrays.copyOf(bytes, cut));
+                assertThrows(IOException.class, () -> readAny(file), file + " cut at " + cut);
+            }
+        }
+    }
+
+    @Test
+    void corruptLengthsReadAsIOException() throws IOException {
+        Path file = dir.resolve("users.dat");
+        BinaryCodec.writeUsers(file, List.of(new User(1, "Ann", "ann@x.com", "pw", "Buyer")));
+        byte[] bytes = Files.readAllBytes(file);
+
+        ByteBuffer.wrap(bytes).putInt(7, Integer.MAX_VALUE); // record count
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> BinaryCodec.readUsers(file));
+
+        ByteBuffer.wrap(bytes).putInt(7, 1).putInt(15, -2); // length of the name
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> BinaryCodec.readUsers(file));
+
+        byte[] payload = BinaryCodec.encodeOrder(order());
+        assertThrows(IOException.class, () -> BinaryCodec.decodeOrder(ByteBuffer.wrap(Arrays.copyOf(payload, 20))));
+    }
+
+    private static List<?> readAny(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.startsWith("users")) return BinaryCodec.readUsers(file);
+        if (name.startsWith("products")) return BinaryCodec.readProducts(file);
+        return BinaryCodec.readOrders(file);
+    }
+
+    private static void assertOrder(Order o) {
+        assertEquals(12, o.getId());
+        assertEquals(1_700_000_123_456L, o.getCreatedAt());
+        assertEquals("ann@x.com", o.getUser().getEmail());
+        assertNull(o.getUser().getPassword());
+        assertEquals(2, o.getItems().size());
+        assertEquals("Lamp", o.getItems().get(0).getProduct().getName());
+        assertEquals(3, o.getItems().get(0).getQuantity());
+        assertNull(o.getItems().get(1).getProduct());
+    }
+
+    // ---------------- DataMigrator ----------------
+
+    @Test
+    void migratorConvertsSerializedUsersOnce() throws IOException {
+        Path file = dir.resolve("users.dat");
+        ArrayList<User> users = new ArrayList<>(List.of(new User(1, "Ann", "ann@x.com", "pw", "Buyer")));
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file))) {
+            out.writeObject(users);
+        }
+        assertTrue(DataMigrator.isLegacy(file));
+
+        assertTrue(DataMigrator.migrateIfLegacy(file));
+        assertFalse(DataMigrator.isLegacy(file));
+        assertTrue(DataMigrator.isLegacy(dir.resolve("users.dat.ser.bak")));
+        User u = BinaryCodec.readUsers(file).get(0);
+        assertEquals("ann@x.com", u.getEmail());
+        assertEquals("pw", u.getPassword());
+
+        assertFalse(DataMigrator.migrateIfLegacy(file));
+        assertFalse(DataMigrator.migrateIfLegacy(dir.resolve("missing.dat")));
+    }
+}
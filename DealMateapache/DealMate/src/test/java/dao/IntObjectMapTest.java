@@ -0,0 +1,72 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void putGetRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(1, "a"));
+        assertNull(map.put(-5, "b"));
+        assertNull(map.put(0, "zero"));
+        assertEquals("a", map.put(1, "a2"));
+        assertEquals(3, map.size());
+
+        assertEquals("a2", map.get(1));
+        assertEquals("b", map.get(-5));
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(2));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(2));
+
+        assertEquals("b", map.remove(-5));
+        assertNull(map.remove(-5));
+        assertFalse(map.containsKey(-5));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        IntObjectMap<Integer> map = new IntObjectMap<>(2);
+        for (int i = 0; i < 10_000; i++) map.put(i * 31, i);
+        assertEquals(10_000, map.size());
+        for (int i = 0; i < 10_000; i++) assertEquals(i, map.get(i * 31));
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 0; i < 100; i++) map.put(i, "v" + i);
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(5));
+        map.put(5, "again");
+        assertEquals("again", map.get(5));
+    }
+
+    // Small key range: lots of collisions, so removals exercise the backward shift
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random rnd = new Random(42);
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = rnd.nextInt(512) - 256;
+            switch (rnd.nextInt(3)) {
+                case 0: assertEquals(expected.put(key, i), map.put(key, i)); break;
+                case 1: assertEquals(expected.remove(key), map.remove(key)); break;
+                default: assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -256; key < 256; key++) assertEquals(expected.get(key), map.get(key));
+    }
+}
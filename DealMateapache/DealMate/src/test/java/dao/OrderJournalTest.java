@@ -0,0 +1,158 @@
+package dao;
+
+import model.Order;
+import model.OrderItem;
+import model.Product;
+import model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private String log() {
+        return dir.resolve("orders.log").toString();
+    }
+
+    private Path segment(int n) {
+        return dir.resolve("orders.log." + n);
+    }
+
+    private static Order order(int buyer) {
+        Order o = new Order(0, new User(buyer, "Buyer " + buyer, "b" + buyer + "@x.com", "pw", "Buyer"));
+        o.addItem(new OrderItem(new Product(buyer * 10, "Item " + buyer, 9.5, 1), 2));
+        return o;
+    }
+
+    private static List<Integer> ids(List<Order> orders) {
+        List<Integer> ids = new ArrayList<>();
+        for (Order o : orders) ids.add(o.getId());
+        return ids;
+    }
+
+    @Test
+    void ordersAndIdsSurviveReopen() throws IOException {
+        OrderJournal j = OrderJournal.open(log());
+        for (int i = 1; i <= 3; i++) j.append(order(i));
+        j.close();
+
+        j = OrderJournal.open(log());
+        try {
+            assertEquals(List.of(1, 2, 3), ids(j.getAllOrders()));
+            Order first = j.getAllOrders().get(0);
+            assertEquals("Buyer 1", first.getUser().getName());
+            assertEquals(2, first.getItems().get(0).getQuantity());
+            assertTrue(first.getCreatedAt() > 0);
+
+            j.append(order(4));
+            assertEquals(4, j.getAllOrders().get(3).getId());
+        } finally {
+            j.close();
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedOnRecovery() throws IOException {
+        OrderJournal j = OrderJournal.open(log());
+        for (int i = 1; i <= 3; i++) j.append(order(i));
+        j.close();
+        long good = Files.size(segment(0));
+
+        // A crash mid-write: a header promising more bytes than follow
+        ByteBuffer torn = ByteBuffer.allocate(12).putInt(100).putInt(0).putInt(7);
+        Files.write(segment(0), torn.array(), StandardOpenOption.APPEND);
+
+        j = OrderJournal.open(log());
+        try {
+            assertEquals(3, j.size());
+            assertEquals(good, Files.size(segment(0)));
+            j.append(order(4));
+        } finally {
+            j.close();
+        }
+
+        j = OrderJournal.open(log());
+        try {
+            assertEquals(List.of(1, 2, 3, 4), ids(j.getAllOrders()));
+        } finally {
+            j.close();
+        }
+    }
+
+    @Test
+    void badCrcStopsReplayAtTheLastGoodRecord() throws IOException {
+        OrderJournal j = OrderJournal.open(log());
+        for (int i = 1; i <= 3; i++) j.append(order(i));
+        j.close();
+
+        byte[] bytes = Files.readAllBytes(segment(0));
+        int second = OrderRecords.HEADER + ByteBuffer.wrap(bytes).getInt(0);
+        bytes[second + OrderRecords.HEADER + 2] ^= 0x40; // inside the second record's payload
+        Files.write(segment(0), bytes);
+
+        List<Order> read = new ArrayList<>();
+        assertEquals(second, OrderRecords.readAll(ByteBuffer.wrap(bytes), read::add));
+        assertEquals(List.of(1), ids(read));
+
+        j = OrderJournal.open(log());
+        try {
+            assertEquals(List.of(1), ids(j.getAllOrders()));
+            assertEquals(second, Files.size(segment(0)));
+        } finally {
+            j.close();
+        }
+    }
+
+    @Test
+    void snapshotCoversCompactedSegments() throws IOException, InterruptedException {
+        OrderJournal j = OrderJournal.open(log());
+        for (int i = 1; i <= 3; i++) j.append(order(i));
+        j.snapshot();
+        j.append(order(4));
+        awaitDeleted(segment(0));
+        j.close();
+
+        j = OrderJournal.open(log());
+        try {
+            assertEquals(List.of(1, 2, 3, 4), ids(j.getAllOrders()));
+            j.append(order(5));
+            assertEquals(5, j.getAllOrders().get(4).getId());
+        } finally {
+            j.close();
+        }
+    }
+
+    @Test
+    void corruptSnapshotWithoutItsSegmentsRefusesToOpen() throws IOException, InterruptedException {
+        OrderJournal j = OrderJournal.open(log());
+        for (int i = 1; i <= 3; i++) j.append(order(i));
+        j.snapshot();
+        awaitDeleted(segment(0));
+        j.close();
+
+        Files.write(dir.resolve("orders.snap"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(UncheckedIOException.class, () -> OrderJournal.open(log()));
+    }
+
+    // The snapshot is written in the background; segment 0 goes once it is durable
+    private static void awaitDeleted(Path file) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Files.exists(file)) {
+            if (System.currentTimeMillis() > deadline) fail("snapshot was not written: " + file + " still exists");
+            Thread.sleep(10);
+        }
+    }
+}
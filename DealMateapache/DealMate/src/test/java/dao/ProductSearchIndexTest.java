@@ -0,0 +1,90 @@
+package dao;
+
+import model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private static Product p(int id, String name) {
+        return new Product(id, name, 1.0, 1);
+    }
+
+    @Test
+    void exactBeatsPrefixBeatsInfix() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                p(1, "iPhone 15"), p(2, "Phones case"), p(3, "Phone"), p(4, "Desk lamp")));
+
+        assertArrayEquals(new int[]{3, 2, 1}, index.searchIds("phone", 10));
+        assertArrayEquals(new int[]{3, 2, 1}, index.searchIds("PHONE", 10));
+        assertArrayEquals(new int[0], index.searchIds("chair", 10));
+        assertArrayEquals(new int[0], index.searchIds("  ", 10));
+    }
+
+    @Test
+    void everyTokenMustMatchAndScoresAdd() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                p(1, "red desk lamp"), p(2, "desk"), p(3, "red lamp"), p(4, "lampshade red")));
+
+        assertArrayEquals(new int[]{1, 3, 4}, index.searchIds("red lamp", 10));
+        assertArrayEquals(new int[]{1}, index.searchIds("lamp desk red", 10));
+    }
+
+    @Test
+    void shortTokensMatchInsideWords() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(p(1, "iPhone"), p(2, "X100 camera"), p(3, "Pump")));
+
+        assertArrayEquals(new int[]{1}, index.searchIds("ph", 10));
+        assertArrayEquals(new int[]{2}, index.searchIds("10", 10));
+        assertArrayEquals(new int[]{3, 1}, index.searchIds("p", 10));
+    }
+
+    @Test
+    void limitedResultsArePrefixOfTheFullRanking() {
+        Random rnd = new Random(7);
+        String[] words = {"lamp", "lampshade", "clamp", "desk", "red", "blue", "table"};
+        List<Product> products = new ArrayList<>();
+        for (int id = 1; id <= 5000; id++) {
+            products.add(p(id, words[rnd.nextInt(words.length)] + " " + words[rnd.nextInt(words.length)]));
+        }
+        ProductSearchIndex index = new ProductSearchIndex(products);
+
+        int[] all = index.searchIds("lamp", Integer.MAX_VALUE);
+        for (int limit : new int[]{1, 10, 100, all.length / 2}) {
+            assertArrayEquals(Arrays.copyOf(all, limit), index.searchIds("lamp", limit), "limit " + limit);
+        }
+    }
+
+    @Test
+    void removeDropsTheProductAndItsTerms() {
+        Product lamp = p(1, "Desk lamp");
+        ProductSearchIndex index = new ProductSearchIndex(List.of(lamp, p(2, "Desk")));
+        int terms = index.termCount();
+
+        index.remove(lamp);
+        assertEquals(1, index.size());
+        assertEquals(terms - 1, index.termCount());
+        assertArrayEquals(new int[0], index.searchIds("lamp", 10));
+        assertArrayEquals(new int[]{2}, index.searchIds("desk", 10));
+    }
+
+    @Test
+    void searchSkipsIdsTheLookupCannotResolve() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(p(1, "lamp"), p(2, "lamp")));
+        List<Product> found = index.search("lamp", 10, id -> id == 2 ? p(2, "lamp") : null);
+        assertEquals(1, found.size());
+        assertEquals(2, found.get(0).getId());
+    }
+
+    @Test
+    void tokensAreLowerCaseAndDistinct() {
+        assertEquals(List.of("usb", "c", "cable"), ProductSearchIndex.distinctTokens("USB-C cable, usb"));
+        assertTrue(ProductSearchIndex.distinctTokens(null).isEmpty());
+    }
+}
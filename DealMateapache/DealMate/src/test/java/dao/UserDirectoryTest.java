@@ -0,0 +1,58 @@
+package dao;
+
+import model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDirectoryTest {
+
+    @TempDir
+    Path dir;
+
+    private static User user(int id, String email) {
+        return new User(id, "User " + id, email, "pw", "buyer");
+    }
+
+    private static void truncate(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+    }
+
+    @Test
+    void truncatedFileOnOpenIsNeitherServedNorOverwritten() throws IOException {
+        Path file = dir.resolve("users.dat");
+        BinaryCodec.writeUsers(file, List.of(user(1, "a@x.com"), user(2, "b@x.com")));
+        truncate(file);
+        byte[] damaged = Files.readAllBytes(file);
+
+        UserDirectory directory = UserDirectory.open(file.toString(), List::of);
+        assertEquals(0, directory.size());
+        assertNull(directory.findByEmail("a@x.com"));
+
+        assertFalse(directory.register(new User("New", "new@x.com", "pw", "buyer")));
+        assertArrayEquals(damaged, Files.readAllBytes(file));
+    }
+
+    @Test
+    void truncatedFileOnReloadKeepsThePreviousImage() throws IOException, InterruptedException {
+        Path file = dir.resolve("users.dat");
+        BinaryCodec.writeUsers(file, List.of(user(1, "a@x.com"), user(2, "b@x.com")));
+        UserDirectory directory = UserDirectory.open(file.toString(), List::of);
+        assertEquals(2, directory.size());
+
+        // Another process leaves a damaged file behind; the next check after the interval sees it
+        truncate(file);
+        Thread.sleep(1100);
+
+        assertNotNull(directory.findByEmail("a@x.com"));
+        assertEquals(2, directory.getAll().size());
+    }
+}
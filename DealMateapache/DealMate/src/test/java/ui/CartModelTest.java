@@ -0,0 +1,57 @@
+package ui;
+
+import model.OrderItem;
+import model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartModelTest {
+
+    private static final Product LAMP = new Product(1, "Lamp", 10.0, 1);
+    private static final Product DESK = new Product(2, "Desk", 100.0, 1);
+
+    @Test
+    void addingTheSameProductMergesTheLine() {
+        CartModel cart = new CartModel();
+        cart.add(LAMP);
+        cart.add(LAMP, 2);
+        cart.add(DESK);
+        assertEquals(2, cart.getLineCount());
+        assertEquals(4, cart.getUnitCount());
+        assertEquals(130.0, cart.getTotal());
+    }
+
+    // The order was submitted with 2 lamps; one more lamp and a desk were added while it saved
+    @Test
+    void subtractKeepsWhatWasAddedAfterTheSnapshot() {
+        CartModel cart = new CartModel();
+        cart.add(LAMP, 2);
+        List<OrderItem> submitted = cart.toOrderItems();
+        cart.add(LAMP);
+        cart.add(DESK);
+
+        cart.subtract(submitted);
+        assertEquals(2, cart.getLineCount());
+        assertEquals(2, cart.getUnitCount());
+        assertEquals(110.0, cart.getTotal());
+        assertEquals(LAMP, cart.getProductAt(0));
+    }
+
+    @Test
+    void subtractRemovesLinesThatWereLoweredOrRemovedMeanwhile() {
+        CartModel cart = new CartModel();
+        cart.add(LAMP, 3);
+        cart.add(DESK);
+        List<OrderItem> submitted = cart.toOrderItems();
+        cart.setQuantity(LAMP.getId(), 1);
+        cart.remove(DESK.getId());
+
+        cart.subtract(submitted);
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getUnitCount());
+        assertEquals(0.0, cart.getTotal());
+    }
+}
@@ -0,0 +1,159 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTokenizerTest {
+
+    @TempDir
+    Path dir;
+
+    private CsvTokenizer open(String text) throws IOException {
+        Path file = dir.resolve("t.csv");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return CsvTokenizer.open(file);
+    }
+
+    // ---------------- Quoting ----------------
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        try (CsvTokenizer t = open("1,\"a, b\",\"say \"\"hi\"\"\",\"two\nlines\"\n2,plain,,x\n")) {
+            assertTrue(t.nextRecord());
+            assertEquals(1, t.nextInt());
+            assertEquals("a, b", t.nextString());
+            assertEquals("say \"hi\"", t.nextString());
+            assertEquals("two\nlines", t.nextString());
+            assertFalse(t.hasField());
+
+            assertTrue(t.nextRecord());
+            assertEquals(2, t.nextInt());
+            assertEquals("plain", t.nextString());
+            assertEquals("", t.nextString());
+            assertEquals("x", t.nextString());
+            assertFalse(t.nextRecord());
+        }
+    }
+
+    @Test
+    void crlfAndBlankLinesBetweenRecords() throws IOException {
+        try (CsvTokenizer t = open("id,name\r\n\r\n7,café\r\n8,\"q\"\r\n")) {
+            assertTrue(t.nextRecord());
+            t.skipField();
+            t.skipField();
+            assertTrue(t.nextRecord());
+            assertEquals(7, t.nextInt());
+            assertEquals("café", t.nextString());
+            assertTrue(t.nextRecord());
+            assertEquals(8, t.nextInt());
+            assertEquals("q", t.nextString());
+            assertFalse(t.nextRecord());
+        }
+    }
+
+    @Test
+    void nextRecordSkipsUnreadFields() throws IOException {
+        try (CsvTokenizer t = open("1,\"x,\ny\",z\n2\n")) {
+            assertTrue(t.nextRecord());
+            assertEquals(1, t.nextInt());
+            assertTrue(t.nextRecord());
+            assertEquals(2, t.nextInt());
+            assertEquals(2, t.recordNumber());
+        }
+    }
+
+    // A torn last line: the empty field after the trailing comma ends at EOF
+    @Test
+    void trailingCommaAtEndOfFile() throws IOException {
+        try (CsvTokenizer t = open("op,id,name,price,sellerId\n-,7,")) {
+            assertTrue(t.nextRecord());
+            assertTrue(t.nextRecord());
+            assertEquals("-", t.nextString());
+            assertEquals(7, t.nextInt());
+            assertTrue(t.hasField());
+            assertFalse(t.nextRecord());
+        }
+        try (CsvTokenizer t = open("1,")) {
+            assertTrue(t.nextRecord());
+            t.nextInt();
+            assertEquals("", t.nextString());
+            assertFalse(t.hasField());
+        }
+    }
+
+    // ---------------- Numbers ----------------
+
+    @Test
+    void intFastPath() throws IOException {
+        try (CsvTokenizer t = open("0,-7,+3, 42 ,2147483647,-2147483648,\"12\"\n")) {
+            assertTrue(t.nextRecord());
+            assertEquals(0, t.nextInt());
+            assertEquals(-7, t.nextInt());
+            assertEquals(3, t.nextInt());
+            assertEquals(42, t.nextInt());
+            assertEquals(Integer.MAX_VALUE, t.nextInt());
+            assertEquals(Integer.MIN_VALUE, t.nextInt());
+            assertEquals(12, t.nextInt());
+        }
+    }
+
+    @Test
+    void longFastPathAndOverflow() throws IOException {
+        try (CsvTokenizer t = open("1700000000000,-9223372036854775808,99999999999999999999\n")) {
+            assertTrue(t.nextRecord());
+            assertEquals(1_700_000_000_000L, t.nextLong());
+            assertEquals(Long.MIN_VALUE, t.nextLong());
+            assertThrows(NumberFormatException.class, t::nextLong);
+        }
+    }
+
+    @Test
+    void doublesMatchTheJdkParser() throws IOException {
+        String[] values = {"0", "1.5", "-0.25", "19.99", "1e3", "2.5E-2", "-7.125e+2",
+                "123456789012.345", "0.1234567890123456789", "12345678901234567890", "1e300"};
+        try (CsvTokenizer t = open(String.join(",", values) + ",\"3.75\"\n")) {
+            assertTrue(t.nextRecord());
+            for (String v : values) assertEquals(Double.parseDouble(v), t.nextDouble(), v);
+            assertEquals(3.75, t.nextDouble());
+        }
+    }
+
+    @Test
+    void malformedNumberThrowsAndTheNextRecordStillReads() throws IOException {
+        try (CsvTokenizer t = open("abc,1\n2147483648,x\n12x,y\n5,ok\n")) {
+            assertTrue(t.nextRecord());
+            assertThrows(NumberFormatException.class, t::nextDouble);
+            assertEquals(1, t.nextInt());
+
+            assertTrue(t.nextRecord());
+            assertThrows(NumberFormatException.class, t::nextInt);
+            assertEquals("x", t.nextString());
+
+            assertTrue(t.nextRecord());
+            assertThrows(NumberFormatException.class, t::nextInt);
+
+            assertTrue(t.nextRecord());
+            assertEquals(5, t.nextInt());
+            assertEquals("ok", t.nextString());
+        }
+    }
+
+    @Test
+    void readingPastTheLastFieldThrows() throws IOException {
+        try (CsvTokenizer t = open("1,2\n")) {
+            assertTrue(t.nextRecord());
+            t.nextInt();
+            assertTrue(t.hasField());
+            t.nextInt();
+            assertFalse(t.hasField());
+            assertThrows(NumberFormatException.class, t::nextString);
+        }
+    }
+}